@@ -0,0 +1,86 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chat.dim.msg.MessageCorpus;
+import chat.dim.protocol.TransportableData;
+import chat.dim.rfc.MIME;
+
+/**
+ *  Large embedded image: parse, decode, encode
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmbedDataBenchmark {
+
+    private String uri;
+    private byte[] image;
+
+    @Setup
+    public void setup() {
+        MessageCorpus.loadPlugins();
+        uri = MessageCorpus.dataURI(MIME.ContentType.IMAGE_JPG, MessageCorpus.IMAGE_SIZE);
+        image = MessageCorpus.randomBytes(MessageCorpus.IMAGE_SIZE);
+    }
+
+    @Benchmark
+    public TransportableData parse() {
+        return EmbedData.create(uri);
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        return EmbedData.create(uri).getBytes();
+    }
+
+    @Benchmark
+    public String encode() {
+        return EmbedData.create(image, MIME.ContentType.IMAGE_JPG).toString();
+    }
+
+    @Benchmark
+    public String base64Encode() {
+        return Base64Data.create(image).toString();
+    }
+
+}
@@ -0,0 +1,105 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chat.dim.protocol.ID;
+import chat.dim.protocol.TransportableData;
+
+/**
+ *  Secure Message: map to object, first access of lazy getters
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptedMessageBenchmark {
+
+    @Param({MessageCorpus.TEXT, MessageCorpus.GROUP, MessageCorpus.IMAGE})
+    public String corpus;
+
+    private Map<String, Object> info;
+
+    @Setup
+    public void setup() {
+        MessageCorpus.loadPlugins();
+        info = MessageCorpus.secure(corpus);
+    }
+
+    @Benchmark
+    public EncryptedMessage create() {
+        return new EncryptedMessage(info);
+    }
+
+    @Benchmark
+    public ID getSender() {
+        return new EncryptedMessage(info).getSender();
+    }
+
+    @Benchmark
+    public ID getGroup() {
+        return new EncryptedMessage(info).getGroup();
+    }
+
+    @Benchmark
+    public TransportableData getData() {
+        return new EncryptedMessage(info).getData();
+    }
+
+    @Benchmark
+    public byte[] getDataBytes() {
+        return new EncryptedMessage(info).getData().getBytes();
+    }
+
+    @Benchmark
+    public Map<String, Object> getEncryptedKeys() {
+        return new EncryptedMessage(info).getEncryptedKeys();
+    }
+
+    @Benchmark
+    public Map<String, Object> toMap() {
+        EncryptedMessage msg = new EncryptedMessage(info);
+        msg.getData();
+        return msg.toMap();
+    }
+
+}
@@ -0,0 +1,196 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import chat.dim.format.Base64Codec;
+
+/**
+ *  Sample messages for benchmarks
+ *
+ *  <blockquote><pre>
+ *  corpus:
+ *      "text"  - 1:1 text message
+ *      "group" - group message with 500 encrypted keys
+ *      "image" - message with a large embedded image (1 MB)
+ *  </pre></blockquote>
+ */
+public final class MessageCorpus {
+    private MessageCorpus() {
+        throw new AssertionError("Utility class cannot be instantiated");
+    }
+
+    public static final String TEXT  = "text";
+    public static final String GROUP = "group";
+    public static final String IMAGE = "image";
+
+    public static final String SENDER   = "moki@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk";
+    public static final String RECEIVER = "hulk@4YeVEN3aUnvC1DNUufCq1bs9zoBSJTzVEj";
+    public static final String GROUP_ID = "Group-Tester@2PpB6iscuBjA15oTjAsiswoX9qis5V3c1Dq";
+
+    public static final int GROUP_MEMBERS = 500;
+    public static final int IMAGE_SIZE = 1024 * 1024;
+
+    // same bytes for every fork
+    private static final Random random = new Random(0x44494D50L);
+
+    public static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    public static String base64(int size) {
+        return Base64.getEncoder().encodeToString(randomBytes(size));
+    }
+
+    public static String dataURI(String mimeType, int size) {
+        return "data:" + mimeType + ";base64," + base64(size);
+    }
+
+    //
+    //  Envelope
+    //
+
+    public static Map<String, Object> envelope(String corpus) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("sender", SENDER);
+        info.put("receiver", RECEIVER);
+        info.put("time", 1760659200.123);
+        if (GROUP.equals(corpus)) {
+            info.put("group", GROUP_ID);
+        }
+        info.put("type", IMAGE.equals(corpus) ? "18" : "1");
+        return info;
+    }
+
+    //
+    //  Instant Message
+    //
+
+    public static Map<String, Object> content(String corpus) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("sn", 3412897654L);
+        info.put("time", 1760659200.123);
+        if (IMAGE.equals(corpus)) {
+            info.put("type", "18");
+            info.put("filename", "photo.jpg");
+            info.put("data", dataURI("image/jpeg", IMAGE_SIZE));
+        } else {
+            info.put("type", "1");
+            info.put("text", "Hello world! This is a message to benchmark the hot paths.");
+        }
+        if (GROUP.equals(corpus)) {
+            info.put("group", GROUP_ID);
+        }
+        return info;
+    }
+
+    public static Map<String, Object> instant(String corpus) {
+        Map<String, Object> info = envelope(corpus);
+        info.remove("type");
+        info.put("content", content(corpus));
+        return info;
+    }
+
+    //
+    //  Secure Message
+    //
+
+    public static Map<String, Object> secure(String corpus) {
+        Map<String, Object> info = envelope(corpus);
+        int size = IMAGE.equals(corpus) ? IMAGE_SIZE + 256 : 256;
+        info.put("data", base64(size));
+        Map<String, Object> keys = new HashMap<>();
+        if (GROUP.equals(corpus)) {
+            for (String member : members(GROUP_MEMBERS)) {
+                keys.put(member, base64(256));
+            }
+        } else {
+            keys.put(RECEIVER, base64(256));
+        }
+        keys.put("digest", base64(6));
+        info.put("keys", keys);
+        return info;
+    }
+
+    //
+    //  Reliable Message
+    //
+
+    public static Map<String, Object> reliable(String corpus) {
+        Map<String, Object> info = secure(corpus);
+        info.put("signature", base64(256));
+        return info;
+    }
+
+    public static List<String> members(int count) {
+        List<String> array = new ArrayList<>(count);
+        for (int index = 0; index < count; ++index) {
+            array.add("member-" + index + "@4YeVEN3aUnvC1DNUufCq1bs9zoBSJTzVEj");
+        }
+        return array;
+    }
+
+    //
+    //  Plugins
+    //
+
+    // loaders for ID/Envelope/Content factories & crypto/format coders
+    private static final String[] LOADERS = {
+            "chat.dim.plugins.ExtensionLoader",
+            "chat.dim.plugins.PluginLoader",
+    };
+
+    private static boolean loaded = false;
+
+    public static synchronized void loadPlugins() {
+        if (loaded) {
+            return;
+        }
+        for (String name : LOADERS) {
+            try {
+                Class<?> clazz = Class.forName(name);
+                Object loader = clazz.getDeclaredConstructor().newInstance();
+                clazz.getMethod("load").invoke(loader);
+            } catch (ClassNotFoundException e) {
+                System.err.println("[JMH] loader not found: " + name);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("failed to run loader: " + name, e);
+            }
+        }
+        // measure the built-in base64 paths instead of the plugin's coder
+        Base64Codec.install();
+        loaded = true;
+    }
+
+}
@@ -0,0 +1,120 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import chat.dim.dkd.BaseContent;
+import chat.dim.protocol.ID;
+
+/**
+ *  Envelope/Content: repeated access of 'group' and 'type',
+ *  as a dispatcher does several times per message;
+ *  compared with parsing the fields on each call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageFieldsBenchmark {
+
+    // calls per message
+    private static final int REPEAT = 4;
+
+    @Param({MessageCorpus.TEXT, MessageCorpus.GROUP})
+    public String corpus;
+
+    private MessageEnvelope envelope;
+    private BaseContent content;
+
+    @Setup
+    public void setup() {
+        MessageCorpus.loadPlugins();
+        Map<String, Object> env = MessageCorpus.envelope(corpus);
+        Map<String, Object> body = MessageCorpus.content(corpus);
+        envelope = new MessageEnvelope(env);
+        content = new BaseContent(body);
+    }
+
+    @Benchmark
+    public void envelopeGroup(Blackhole bh) {
+        for (int i = 0; i < REPEAT; ++i) {
+            bh.consume(envelope.getGroup());
+        }
+    }
+
+    @Benchmark
+    public void envelopeGroupParsed(Blackhole bh) {
+        for (int i = 0; i < REPEAT; ++i) {
+            bh.consume(ID.parse(envelope.get("group")));
+        }
+    }
+
+    @Benchmark
+    public void envelopeType(Blackhole bh) {
+        for (int i = 0; i < REPEAT; ++i) {
+            bh.consume(envelope.getType());
+        }
+    }
+
+    @Benchmark
+    public void envelopeTypeParsed(Blackhole bh) {
+        for (int i = 0; i < REPEAT; ++i) {
+            bh.consume(envelope.getString("type"));
+        }
+    }
+
+    @Benchmark
+    public void contentGroup(Blackhole bh) {
+        for (int i = 0; i < REPEAT; ++i) {
+            bh.consume(content.getGroup());
+        }
+    }
+
+    @Benchmark
+    public void contentGroupParsed(Blackhole bh) {
+        for (int i = 0; i < REPEAT; ++i) {
+            bh.consume(ID.parse(content.get("group")));
+        }
+    }
+
+}
@@ -33,6 +33,7 @@ package chat.dim.dkd;
 import java.util.Date;
 import java.util.Map;
 
+import chat.dim.ext.SharedClock;
 import chat.dim.ext.SharedMessageExtensions;
 import chat.dim.protocol.Content;
 import chat.dim.protocol.ID;
@@ -70,24 +71,37 @@ public class BaseContent extends Dictionary implements Content {
 
     // message time
     private Date time;
+    private double timestamp;  // seconds, NaN for not loaded
+
+    // group ID (optional)
+    private ID group;
+    private boolean groupLoaded;
 
     public BaseContent(Map<String, Object> content) {
         super(content);
         // lazy load
-        type = null;
-        sn   = null;
-        time = null;
+        type  = null;
+        sn    = null;
+        time  = null;
+        group = null;
+        groupLoaded = false;
+        timestamp   = Double.NaN;
     }
 
     public BaseContent(String msgType) {
         super();
-        Date now = new Date();
+        // take time from the shared clock
+        double seconds = SharedClock.now();
+        Date now = new Date((long) (seconds * 1000));
         type = msgType;
         sn   = InstantMessage.generateSerialNumber(msgType, now);
         time = now;
+        group = null;
+        groupLoaded = false;
+        timestamp   = seconds;
         put("type", type);
         put("sn", sn);
-        setDateTime("time", now);
+        put("time", seconds);
     }
 
     @Override
@@ -119,15 +133,35 @@ public class BaseContent extends Dictionary implements Content {
         return time;
     }
 
+    /**
+     *  Get content time without creating Date
+     *
+     * @return seconds from 1970-01-01; 0 if not found
+     */
+    public double getTimestamp() {
+        double seconds = timestamp;
+        if (Double.isNaN(seconds)) {
+            seconds = SharedClock.parseTimestamp(get("time"));
+            timestamp = seconds;
+        }
+        return seconds;
+    }
+
     // Group ID/string for group message
     //    if field 'group' exists, it means this is a group message
     @Override
     public ID getGroup() {
-        return ID.parse(get("group"));
+        if (!groupLoaded) {
+            group = ID.parse(get("group"));
+            groupLoaded = true;
+        }
+        return group;
     }
 
     @Override
-    public void setGroup(ID group) {
-        setString("group", group);
+    public void setGroup(ID gid) {
+        setString("group", gid);
+        group = gid;
+        groupLoaded = true;
     }
 }
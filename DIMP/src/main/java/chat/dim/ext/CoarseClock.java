@@ -0,0 +1,103 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *  Coarse Clock
+ *  <p>
+ *      A daemon thread refreshes the time in every tick,
+ *      so reading it costs only a volatile load;
+ *      clocks with the same resolution share one ticker thread,
+ *      so creating and dropping instances will not leak threads.
+ *  </p>
+ */
+public class CoarseClock implements Clock {
+
+    private final Ticker ticker;
+
+    public CoarseClock(long resolutionMillis) {
+        super();
+        assert resolutionMillis > 0 : "clock resolution error: " + resolutionMillis;
+        ticker = Ticker.get(resolutionMillis);
+    }
+
+    public CoarseClock() {
+        this(10);
+    }
+
+    public long getResolution() {
+        return ticker.resolution;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return ticker.current;
+    }
+
+    /**
+     *  Shared ticker for each resolution
+     */
+    private static final class Ticker implements Runnable {
+
+        // resolution => ticker
+        private static final Map<Long, Ticker> tickers = new ConcurrentHashMap<>();
+
+        final long resolution;
+        volatile long current;
+
+        private Ticker(long resolutionMillis) {
+            super();
+            resolution = resolutionMillis;
+            current = System.currentTimeMillis();
+        }
+
+        static Ticker get(long resolutionMillis) {
+            return tickers.computeIfAbsent(resolutionMillis, millis -> {
+                Ticker ticker = new Ticker(millis);
+                Thread thread = new Thread(ticker, "CoarseClock-" + millis + "ms");
+                thread.setDaemon(true);
+                thread.start();
+                return ticker;
+            });
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    Thread.sleep(resolution);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                current = System.currentTimeMillis();
+            }
+        }
+    }
+
+}
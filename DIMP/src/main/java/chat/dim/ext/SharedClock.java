@@ -0,0 +1,67 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.Date;
+
+import chat.dim.data.Converter;
+
+/**
+ *  Clock for creating messages
+ */
+public final class SharedClock {
+    private SharedClock() {
+        throw new AssertionError("Utility class cannot be instantiated");
+    }
+
+    // set 'new CoarseClock()' to avoid system calls in hot paths
+    public static Clock clock = Clock.SYSTEM;
+
+    /**
+     *  Current time
+     *
+     * @return seconds from 1970-01-01
+     */
+    public static double now() {
+        return clock.currentTimeMillis() / 1000.0;
+    }
+
+    /**
+     *  Convert 'time' value (seconds) to timestamp
+     *
+     * @param time - number, string or date
+     * @return seconds from 1970-01-01; 0 on error
+     */
+    public static double parseTimestamp(Object time) {
+        if (time instanceof Date) {
+            return ((Date) time).getTime() / 1000.0;
+        }
+        // same rules as Converter.getDateTime()
+        Double seconds = Converter.getDouble(time, null);
+        return seconds == null ? 0 : seconds;
+    }
+
+}
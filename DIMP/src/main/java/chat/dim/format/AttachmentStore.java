@@ -0,0 +1,56 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ *  Attachment Store
+ *  <p>
+ *      Content-addressed storage for large file data,
+ *      PNF wrappers can spill their 'data' here to keep it off the heap.
+ *  </p>
+ */
+public interface AttachmentStore {
+
+    /**
+     *  Save file data
+     *
+     * @param data - file content (not encrypted)
+     * @return reference (content digest); null on error
+     */
+    String save(byte[] data);
+
+    /**
+     *  Load file data
+     *
+     * @param ref - reference returned by save()
+     * @return read-only buffer of file content; null if not found
+     */
+    ByteBuffer load(String ref);
+
+}
@@ -0,0 +1,214 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.util.Arrays;
+
+
+/**
+ *  Base-58 Codec
+ *  <p>
+ *      Bitcoin alphabet, table-driven, without BigInteger:
+ *      the number is kept in machine-word limbs, so each step
+ *      converts 3 bytes (encoding) or 5 characters (decoding) at once.
+ *  </p>
+ */
+public final class Base58Codec {
+    private Base58Codec() {
+        throw new AssertionError("Utility class cannot be instantiated");
+    }
+
+    private static final char[] ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz".toCharArray();
+
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ALPHABET.length; ++i) {
+            DECODE[ALPHABET[i]] = i;
+        }
+    }
+
+    // 58^5, fits in 30 bits
+    private static final long BASE_5 = 58L * 58 * 58 * 58 * 58;
+
+    private static final long[] POWERS = {1, 58, 58 * 58, 58 * 58 * 58, 58 * 58 * 58 * 58, BASE_5};
+
+    public static String encode(byte[] data) {
+        return encode(data, 0, data.length);
+    }
+
+    public static String encode(byte[] src, int off, int len) {
+        final int end = off + len;
+        // leading zeros
+        int zeros = 0;
+        while (zeros < len && src[off + zeros] == 0) {
+            ++zeros;
+        }
+        // convert to base 58^5 (little-endian limbs)
+        int[] limbs = new int[(len - zeros) * 138 / 100 / 5 + 2];
+        int used = 0;
+        int i = off + zeros;
+        int size = (end - i) % 3;
+        if (size == 0) {
+            size = 3;
+        }
+        long carry;
+        long value;
+        int shift;
+        while (i < end) {
+            carry = 0;
+            for (int k = 0; k < size; ++k) {
+                carry = carry << 8 | (src[i++] & 0xFF);
+            }
+            shift = size << 3;
+            for (int j = 0; j < used; ++j) {
+                value = ((long) limbs[j] << shift) + carry;
+                limbs[j] = (int) (value % BASE_5);
+                carry = value / BASE_5;
+            }
+            while (carry != 0) {
+                limbs[used++] = (int) (carry % BASE_5);
+                carry /= BASE_5;
+            }
+            size = 3;
+        }
+        // convert limbs to digits (big-endian)
+        char[] digits = new char[zeros + used * 5];
+        int pos = digits.length;
+        int limb;
+        for (int j = 0; j < used; ++j) {
+            limb = limbs[j];
+            for (int k = 0; k < 5; ++k) {
+                digits[--pos] = ALPHABET[limb % 58];
+                limb /= 58;
+            }
+        }
+        // skip zero digits of the top limb
+        while (pos < digits.length && digits[pos] == '1') {
+            ++pos;
+        }
+        // leading zeros
+        for (int k = 0; k < zeros; ++k) {
+            digits[--pos] = '1';
+        }
+        return new String(digits, pos, digits.length - pos);
+    }
+
+    /**
+     *  Check whether the string is exactly what the encoder outputs;
+     *  every string in the alphabet is, as leading '1's stand for zeros.
+     *
+     * @param src - encoded string
+     * @return false on characters out of the alphabet
+     */
+    public static boolean isCanonical(CharSequence src) {
+        final int len = src.length();
+        char ch;
+        for (int i = 0; i < len; ++i) {
+            ch = src.charAt(i);
+            if (ch >= 128 || DECODE[ch] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static byte[] decode(CharSequence src) {
+        return decode(src, 0, src.length());
+    }
+
+    /**
+     *  Decode characters in range
+     *
+     * @param src   - encoded string
+     * @param start - start position
+     * @param end   - end position (exclusive)
+     * @return decoded data; null on error
+     */
+    public static byte[] decode(CharSequence src, int start, int end) {
+        // leading zeros
+        int zeros = 0;
+        while (start + zeros < end && src.charAt(start + zeros) == '1') {
+            ++zeros;
+        }
+        // convert to base 2^32 (little-endian limbs)
+        int[] limbs = new int[(end - start - zeros) * 733 / 1000 / 4 + 2];
+        int used = 0;
+        int i = start + zeros;
+        int size = (end - i) % 5;
+        if (size == 0) {
+            size = 5;
+        }
+        char ch;
+        int digit;
+        long carry;
+        long value;
+        long multiplier;
+        while (i < end) {
+            carry = 0;
+            for (int k = 0; k < size; ++k) {
+                ch = src.charAt(i++);
+                digit = ch < 128 ? DECODE[ch] : -1;
+                if (digit < 0) {
+                    return null;
+                }
+                carry = carry * 58 + digit;
+            }
+            multiplier = POWERS[size];
+            for (int j = 0; j < used; ++j) {
+                value = (limbs[j] & 0xFFFFFFFFL) * multiplier + carry;
+                limbs[j] = (int) value;
+                carry = value >>> 32;
+            }
+            if (carry != 0) {
+                limbs[used++] = (int) carry;
+            }
+            size = 5;
+        }
+        // count significant bytes
+        int count = used * 4;
+        if (used > 0) {
+            int top = limbs[used - 1];
+            for (int shift = 24; shift > 0 && (top >>> shift) == 0; shift -= 8) {
+                --count;
+            }
+        }
+        // convert limbs to bytes (big-endian)
+        byte[] data = new byte[zeros + count];
+        int pos = data.length;
+        int limb;
+        for (int j = 0; j < used; ++j) {
+            limb = limbs[j];
+            for (int k = 0; k < 4 && pos > zeros; ++k) {
+                data[--pos] = (byte) limb;
+                limb >>>= 8;
+            }
+        }
+        return data;
+    }
+
+}
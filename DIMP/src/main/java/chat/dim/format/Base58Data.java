@@ -0,0 +1,84 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import chat.dim.protocol.TransportableData;
+
+
+/**
+ *  Base-58 encoding
+ */
+public class Base58Data extends CodedData {
+
+    public Base58Data(String base58) {
+        super(base58);
+        assert !base58.isEmpty() : "base58 string should not be empty";
+    }
+
+    public Base58Data(byte[] bytes) {
+        super(bytes);
+        assert bytes.length > 0 : "decoded data should not be empty";
+    }
+
+    //
+    //  TransportableData
+    //
+
+    @Override
+    public String getEncoding() {
+        return BASE_58;
+    }
+
+    @Override
+    protected byte[] decodeString(String encoded) {
+        return Base58Codec.decode(encoded);
+    }
+
+    @Override
+    protected String encodeBytes(byte[] bytes) {
+        return Base58Codec.encode(bytes);
+    }
+
+    @Override
+    protected boolean isCanonical(String encoded) {
+        return Base58Codec.isCanonical(encoded);
+    }
+
+    //
+    //  Factory methods
+    //
+
+    // create with bytes
+    public static TransportableData create(byte[] data) {
+        return new Base58Data(data);
+    }
+
+    // create with string
+    public static TransportableData create(String text) {
+        return new Base58Data(text);
+    }
+
+}
@@ -0,0 +1,693 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+
+/**
+ *  Base-64 Codec
+ *  <p>
+ *      Table-driven encoder/decoder (RFC 4648) working on caller-supplied ranges,
+ *      so large payloads can be converted without intermediate copies.
+ *  </p>
+ *  <p>
+ *      The decoder accepts what java.util.Base64.getDecoder() accepts:
+ *      standard alphabet only, no whitespaces; the padding characters
+ *      are optional, but must be correct when present.
+ *  </p>
+ *  <p>
+ *      Base64Data, EmbedData and JSONWriter only use this codec while no
+ *      other coder is installed to the shared Base64; since the plugins
+ *      install their own, call 'install()' after loading them to opt in.
+ *  </p>
+ */
+public final class Base64Codec {
+    private Base64Codec() {
+        throw new AssertionError("Utility class cannot be instantiated");
+    }
+
+    private static final char[] ALPHABET = (
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZ" + "abcdefghijklmnopqrstuvwxyz" + "0123456789+/"
+    ).toCharArray();
+
+    private static final byte[] ASCII = new byte[64];
+
+    private static final int INVALID = -1;
+    private static final int PADDING = -2;
+
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, INVALID);
+        for (int i = 0; i < 64; ++i) {
+            ASCII[i] = (byte) ALPHABET[i];
+            DECODE[ALPHABET[i]] = i;
+        }
+        DECODE['='] = PADDING;
+    }
+
+    /**
+     *  Coder for the shared Base64 (Base64.coder), built on this codec;
+     *  while it (or no coder) is installed there, Base64Data and EmbedData
+     *  take the table-driven fast paths.
+     */
+    public static final DataCoder CODER = new DataCoder() {
+
+        @Override
+        public String encode(byte[] data) {
+            return Base64Codec.encode(data);
+        }
+
+        @Override
+        public byte[] decode(String string) {
+            return Base64Codec.decode(string);
+        }
+    };
+
+    /**
+     *  Install the built-in coder to the shared Base64,
+     *  this should be called after the plugins are loaded.
+     */
+    public static void install() {
+        Base64.coder = CODER;
+    }
+
+    // chunk size for streaming (multiple of 3 & 4)
+    private static final int CHUNK = 3 * 4 * 256;
+
+    private static int valueOf(char ch) {
+        return ch < 128 ? DECODE[ch] : INVALID;
+    }
+
+    //
+    //  Encode
+    //
+
+    /**
+     *  Get length of encoded string
+     *
+     * @param len - data length
+     * @return count of characters (with padding)
+     */
+    public static int encodedLength(int len) {
+        return (len + 2) / 3 * 4;
+    }
+
+    public static String encode(byte[] data) {
+        return encode(data, 0, data.length);
+    }
+
+    public static String encode(byte[] src, int off, int len) {
+        char[] chars = new char[encodedLength(len)];
+        int count = encode(src, off, len, chars, 0);
+        assert count == chars.length : "base64 length error: " + count + ", " + chars.length;
+        return new String(chars);
+    }
+
+    /**
+     *  Encode bytes into characters
+     *
+     * @param src - source data
+     * @param off - start position of source data
+     * @param len - length of source data
+     * @param dst - buffer for encoded characters
+     * @param pos - start position of buffer
+     * @return count of characters written
+     */
+    public static int encode(byte[] src, int off, int len, char[] dst, int pos) {
+        final int stop = off + len - len % 3;
+        int bits;
+        int p = pos;
+        int i = off;
+        for (; i < stop; i += 3) {
+            bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[p++] = ALPHABET[bits >>> 18];
+            dst[p++] = ALPHABET[(bits >>> 12) & 0x3F];
+            dst[p++] = ALPHABET[(bits >>> 6) & 0x3F];
+            dst[p++] = ALPHABET[bits & 0x3F];
+        }
+        switch (off + len - stop) {
+            case 1:
+                bits = (src[i] & 0xFF) << 16;
+                dst[p++] = ALPHABET[bits >>> 18];
+                dst[p++] = ALPHABET[(bits >>> 12) & 0x3F];
+                dst[p++] = '=';
+                dst[p++] = '=';
+                break;
+            case 2:
+                bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+                dst[p++] = ALPHABET[bits >>> 18];
+                dst[p++] = ALPHABET[(bits >>> 12) & 0x3F];
+                dst[p++] = ALPHABET[(bits >>> 6) & 0x3F];
+                dst[p++] = '=';
+                break;
+        }
+        return p - pos;
+    }
+
+    /**
+     *  Encode bytes into ASCII bytes
+     *
+     * @param src - source data
+     * @param off - start position of source data
+     * @param len - length of source data
+     * @param dst - buffer for encoded ASCII bytes
+     * @param pos - start position of buffer
+     * @return count of bytes written
+     */
+    public static int encode(byte[] src, int off, int len, byte[] dst, int pos) {
+        final int stop = off + len - len % 3;
+        int bits;
+        int p = pos;
+        int i = off;
+        for (; i < stop; i += 3) {
+            bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[p++] = ASCII[bits >>> 18];
+            dst[p++] = ASCII[(bits >>> 12) & 0x3F];
+            dst[p++] = ASCII[(bits >>> 6) & 0x3F];
+            dst[p++] = ASCII[bits & 0x3F];
+        }
+        switch (off + len - stop) {
+            case 1:
+                bits = (src[i] & 0xFF) << 16;
+                dst[p++] = ASCII[bits >>> 18];
+                dst[p++] = ASCII[(bits >>> 12) & 0x3F];
+                dst[p++] = '=';
+                dst[p++] = '=';
+                break;
+            case 2:
+                bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+                dst[p++] = ASCII[bits >>> 18];
+                dst[p++] = ASCII[(bits >>> 12) & 0x3F];
+                dst[p++] = ASCII[(bits >>> 6) & 0x3F];
+                dst[p++] = '=';
+                break;
+        }
+        return p - pos;
+    }
+
+    /**
+     *  Encode all remaining bytes of the buffer into characters
+     *
+     * @param src - source buffer, its position will be moved to the limit
+     * @param dst - buffer for encoded characters
+     * @param pos - start position of buffer
+     * @return count of characters written
+     */
+    public static int encode(ByteBuffer src, char[] dst, int pos) {
+        if (src.hasArray()) {
+            int off = src.arrayOffset() + src.position();
+            int len = src.remaining();
+            int count = encode(src.array(), off, len, dst, pos);
+            src.position(src.limit());
+            return count;
+        }
+        byte[] buffer = new byte[Math.min(CHUNK, src.remaining())];
+        int p = pos;
+        int len;
+        while (src.hasRemaining()) {
+            len = Math.min(buffer.length, src.remaining());
+            src.get(buffer, 0, len);
+            p += encode(buffer, 0, len, dst, p);
+        }
+        return p - pos;
+    }
+
+    /**
+     *  Encode bytes into a text sink chunk by chunk
+     *
+     * @param src - source data
+     * @param off - start position of source data
+     * @param len - length of source data
+     * @param out - text sink (Writer, StringBuilder, ...)
+     */
+    public static void encode(byte[] src, int off, int len, Appendable out) throws IOException {
+        char[] buffer = new char[encodedLength(Math.min(CHUNK, len))];
+        final int end = off + len;
+        int size;
+        int count;
+        for (int i = off; i < end; i += size) {
+            size = Math.min(CHUNK, end - i);
+            count = encode(src, i, size, buffer, 0);
+            appendChars(out, buffer, count);
+        }
+    }
+
+    // emit encoded chunk into text sink
+    private static void appendChars(Appendable out, char[] chars, int count) throws IOException {
+        if (out instanceof Writer) {
+            ((Writer) out).write(chars, 0, count);
+        } else if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(chars, 0, count);
+        } else {
+            out.append(CharBuffer.wrap(chars, 0, count));
+        }
+    }
+
+    /**
+     *  Create a stream which encodes all bytes written to it into the text sink;
+     *  the last group (with padding) is emitted when the stream is closed.
+     *
+     * @param out - text sink
+     * @return encoding stream
+     */
+    public static OutputStream encoder(Appendable out) {
+        return new EncodingStream(out);
+    }
+
+    /**
+     *  Check whether the string is exactly what the encoder outputs,
+     *  so that different strings always mean different data.
+     *
+     * @param src - encoded string
+     * @return false on missing padding or non-zero unused bits
+     */
+    public static boolean isCanonical(CharSequence src) {
+        final int len = src.length();
+        if (len % 4 != 0) {
+            return false;
+        }
+        int pads = 0;
+        if (len > 0 && src.charAt(len - 1) == '=') {
+            pads = src.charAt(len - 2) == '=' ? 2 : 1;
+        }
+        final int end = len - pads;
+        char ch;
+        for (int i = 0; i < end; ++i) {
+            ch = src.charAt(i);
+            if (valueOf(ch) < 0) {
+                return false;
+            }
+        }
+        switch (pads) {
+            case 1:
+                return (DECODE[src.charAt(end - 1)] & 0x03) == 0;
+            case 2:
+                return (DECODE[src.charAt(end - 1)] & 0x0F) == 0;
+            default:
+                return true;
+        }
+    }
+
+    //
+    //  Decode
+    //
+
+    /**
+     *  Get length of decoded data
+     *
+     * @param src   - encoded string
+     * @param start - start position
+     * @param end   - end position (exclusive)
+     * @return count of bytes; -1 on error
+     */
+    public static int decodedLength(CharSequence src, int start, int end) {
+        final int len = end - start;
+        int pads = 0;
+        if (len > 0 && src.charAt(end - 1) == '=') {
+            pads = len > 1 && src.charAt(end - 2) == '=' ? 2 : 1;
+            if (len % 4 != 0) {
+                return -1;
+            }
+        }
+        final int symbols = len - pads;
+        if (symbols % 4 == 1 || (pads > 0 && symbols % 4 + pads != 4)) {
+            return -1;
+        }
+        return symbols / 4 * 3 + Math.max(0, symbols % 4 - 1);
+    }
+
+    public static byte[] decode(CharSequence src) {
+        return decode(src, 0, src.length());
+    }
+
+    /**
+     *  Decode characters in range into a new byte array with exact size
+     *
+     * @param src   - encoded string
+     * @param start - start position
+     * @param end   - end position (exclusive)
+     * @return decoded data; null on error
+     */
+    public static byte[] decode(CharSequence src, int start, int end) {
+        int len = decodedLength(src, start, end);
+        if (len < 0) {
+            return null;
+        }
+        byte[] data = new byte[len];
+        int count = decode(src, start, end, data, 0);
+        if (count != len) {
+            return null;
+        }
+        return data;
+    }
+
+    /**
+     *  Decode characters in range into buffer
+     *
+     * @param src   - encoded string
+     * @param start - start position
+     * @param end   - end position (exclusive)
+     * @param dst   - buffer for decoded data
+     * @param pos   - start position of buffer
+     * @return count of bytes written; -1 on error
+     */
+    public static int decode(CharSequence src, int start, int end, byte[] dst, int pos) {
+        int bits;
+        int p = pos;
+        int i = start;
+        int a, b, c, d;
+        // whole groups
+        for (; i + 4 <= end; i += 4) {
+            a = valueOf(src.charAt(i));
+            b = valueOf(src.charAt(i + 1));
+            c = valueOf(src.charAt(i + 2));
+            d = valueOf(src.charAt(i + 3));
+            if ((a | b | c | d) < 0) {
+                break;
+            }
+            bits = a << 18 | b << 12 | c << 6 | d;
+            dst[p++] = (byte) (bits >> 16);
+            dst[p++] = (byte) (bits >> 8);
+            dst[p++] = (byte) bits;
+        }
+        // last group: 2 or 3 symbols, with optional paddings
+        final int rest = end - i;
+        if (rest == 0) {
+            return p - pos;
+        } else if (rest < 2 || rest > 4) {
+            return -1;
+        }
+        a = valueOf(src.charAt(i));
+        b = valueOf(src.charAt(i + 1));
+        c = rest > 2 ? valueOf(src.charAt(i + 2)) : PADDING;
+        d = rest > 3 ? valueOf(src.charAt(i + 3)) : PADDING;
+        if (a < 0 || b < 0 || d != PADDING) {
+            return -1;
+        } else if (c >= 0) {
+            // "xxx=" or "xxx"
+            bits = a << 18 | b << 12 | c << 6;
+            dst[p++] = (byte) (bits >> 16);
+            dst[p++] = (byte) (bits >> 8);
+        } else if (c == PADDING && rest != 3) {
+            // "xx==" or "xx"
+            bits = a << 18 | b << 12;
+            dst[p++] = (byte) (bits >> 16);
+        } else {
+            return -1;
+        }
+        return p - pos;
+    }
+
+    /**
+     *  Decode characters in range into buffer
+     *
+     * @param src   - encoded string
+     * @param start - start position
+     * @param end   - end position (exclusive)
+     * @param dst   - buffer for decoded data, its position will be moved forward
+     * @return count of bytes written; -1 on error
+     */
+    public static int decode(CharSequence src, int start, int end, ByteBuffer dst) {
+        if (dst.hasArray()) {
+            int len = decodedLength(src, start, end);
+            if (len < 0 || len > dst.remaining()) {
+                return -1;
+            }
+            int count = decode(src, start, end, dst.array(), dst.arrayOffset() + dst.position());
+            if (count > 0) {
+                dst.position(dst.position() + count);
+            }
+            return count;
+        }
+        byte[] buffer = new byte[CHUNK];
+        int total = 0;
+        int count;
+        int stop;
+        for (int i = start; i < end; i = stop) {
+            stop = next(src, i, end);
+            if (stop < 0) {
+                return -1;
+            }
+            count = decode(src, i, stop, buffer, 0);
+            if (count < 0 || count > dst.remaining()) {
+                return -1;
+            }
+            dst.put(buffer, 0, count);
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     *  Decode characters in range into a byte sink chunk by chunk
+     *
+     * @param src   - encoded string
+     * @param start - start position
+     * @param end   - end position (exclusive)
+     * @param out   - byte sink
+     * @return count of bytes written; -1 on error
+     */
+    public static long decode(CharSequence src, int start, int end, OutputStream out) throws IOException {
+        byte[] buffer = new byte[CHUNK];
+        long total = 0;
+        int count;
+        int stop;
+        for (int i = start; i < end; i = stop) {
+            stop = next(src, i, end);
+            if (stop < 0) {
+                return -1;
+            }
+            count = decode(src, i, stop, buffer, 0);
+            if (count < 0) {
+                return -1;
+            }
+            out.write(buffer, 0, count);
+            total += count;
+        }
+        return total;
+    }
+
+    // end of the next chunk (whole groups); -1 if paddings found before the last chunk
+    private static int next(CharSequence src, int start, int end) {
+        int stop = start + CHUNK / 3 * 4;
+        if (stop >= end) {
+            return end;
+        }
+        return src.charAt(stop - 1) == '=' ? -1 : stop;
+    }
+
+    /**
+     *  Create a writer which decodes all characters written to it into the byte sink;
+     *  the last group is emitted when the writer is closed.
+     *
+     * @param out - byte sink
+     * @return decoding writer
+     */
+    public static Writer decoder(OutputStream out) {
+        return new DecodingWriter(out);
+    }
+
+    //
+    //  Streams
+    //
+
+    private static final class EncodingStream extends OutputStream {
+
+        private final Appendable target;
+
+        private final byte[] buffer = new byte[CHUNK];
+        private final char[] chars = new char[CHUNK / 3 * 4];
+        private int count = 0;
+
+        private boolean closed = false;
+
+        EncodingStream(Appendable out) {
+            super();
+            target = out;
+        }
+
+        private void emit(int len) throws IOException {
+            int size = encode(buffer, 0, len, chars, 0);
+            appendChars(target, chars, size);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (closed) {
+                throw new IOException("stream closed");
+            }
+            buffer[count++] = (byte) b;
+            if (count == buffer.length) {
+                emit(count);
+                count = 0;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("stream closed");
+            }
+            int size;
+            while (len > 0) {
+                size = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, size);
+                count += size;
+                off += size;
+                len -= size;
+                if (count == buffer.length) {
+                    emit(count);
+                    count = 0;
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // keep the tail (less than 3 bytes) for next writing
+            int tail = count % 3;
+            if (count > tail) {
+                emit(count - tail);
+                System.arraycopy(buffer, count - tail, buffer, 0, tail);
+                count = tail;
+            }
+            if (target instanceof Writer) {
+                ((Writer) target).flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            if (count > 0) {
+                emit(count);
+                count = 0;
+            }
+            closed = true;
+            if (target instanceof Writer) {
+                ((Writer) target).flush();
+            }
+        }
+    }
+
+    private static final class DecodingWriter extends Writer {
+
+        private final OutputStream target;
+
+        private final byte[] buffer = new byte[CHUNK];
+        private int count = 0;
+
+        private int bits = 0;
+        private int symbols = 0;
+        private int pads = 0;
+
+        DecodingWriter(OutputStream out) {
+            super();
+            target = out;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            int value;
+            for (int i = off; i < off + len; ++i) {
+                value = valueOf(cbuf[i]);
+                if (value >= 0) {
+                    if (pads > 0) {
+                        throw new IOException("base64 data after padding");
+                    }
+                    bits = bits << 6 | value;
+                    if (++symbols == 4) {
+                        if (count + 3 > buffer.length) {
+                            target.write(buffer, 0, count);
+                            count = 0;
+                        }
+                        buffer[count++] = (byte) (bits >> 16);
+                        buffer[count++] = (byte) (bits >> 8);
+                        buffer[count++] = (byte) bits;
+                        bits = 0;
+                        symbols = 0;
+                    }
+                } else if (value == PADDING && symbols + pads < 4 && symbols > 1) {
+                    ++pads;
+                } else {
+                    throw new IOException("base64 character error: " + cbuf[i]);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (count > 0) {
+                target.write(buffer, 0, count);
+                count = 0;
+            }
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (pads > 0 && symbols + pads != 4) {
+                throw new IOException("base64 padding error");
+            }
+            switch (symbols) {
+                case 1:
+                    throw new IOException("base64 data truncated");
+                case 2:
+                    write((byte) (bits >> 4));
+                    break;
+                case 3:
+                    write((byte) (bits >> 10));
+                    write((byte) (bits >> 2));
+                    break;
+            }
+            symbols = 0;
+            flush();
+        }
+
+        private void write(byte b) throws IOException {
+            if (count == buffer.length) {
+                target.write(buffer, 0, count);
+                count = 0;
+            }
+            buffer[count++] = b;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            write(new char[]{(char) c}, 0, 1);
+        }
+    }
+
+}
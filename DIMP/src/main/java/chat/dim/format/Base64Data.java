@@ -25,6 +25,9 @@
  */
 package chat.dim.format;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import chat.dim.protocol.TransportableData;
 
 
@@ -43,6 +46,16 @@ public class Base64Data extends BaseData {
         assert bytes.length > 0 : "decoded data should not be empty";
     }
 
+    /**
+     *  Check whether the built-in table-driven codec can be used,
+     *  that is, no coder or the one from 'Base64Codec.install()'
+     *  has been installed to the shared Base64.
+     */
+    static boolean isBuiltinCoder() {
+        DataCoder coder = Base64.coder;
+        return coder == null || coder == Base64Codec.CODER;
+    }
+
     //
     //  TransportableData
     //
@@ -54,26 +67,57 @@ public class Base64Data extends BaseData {
 
     @Override
     public byte[] getBytes() {
-        byte[] bytes = binary;
+        byte[] bytes = cachedBinary();
         if (bytes == null) {
-            assert string != null : "base64 data error";
-            bytes = Base64.decode(string);
-            binary = bytes;
+            String base64 = cachedString();
+            assert base64 != null : "base64 data error";
+            bytes = isBuiltinCoder() ? Base64Codec.decode(base64) : Base64.decode(base64);
+            retainBinary(bytes);
         }
         return bytes;
     }
 
     @Override
     public String toString() {
-        String base64 = string;
+        String base64 = cachedString();
         if (base64 == null) {
-            assert binary != null : "base64 data error";
-            base64 = Base64.encode(binary);
-            string = base64;
+            byte[] bytes = cachedBinary();
+            assert bytes != null : "base64 data error";
+            base64 = isBuiltinCoder() ? Base64Codec.encode(bytes) : Base64.encode(bytes);
+            retainString(base64);
         }
         return base64;
     }
 
+    @Override
+    protected boolean isCanonical(String encoded) {
+        return Base64Codec.isCanonical(encoded);
+    }
+
+    @Override
+    protected boolean supportsStreamDecoding() {
+        return isBuiltinCoder();
+    }
+
+    @Override
+    protected boolean supportsStreamEncoding() {
+        return isBuiltinCoder();
+    }
+
+    @Override
+    protected long decodeTo(String encoded, OutputStream out) throws IOException {
+        long count = Base64Codec.decode(encoded, 0, encoded.length(), out);
+        if (count < 0) {
+            throw new IOException("base64 data error");
+        }
+        return count;
+    }
+
+    @Override
+    protected void encodeTo(byte[] bytes, Appendable out) throws IOException {
+        Base64Codec.encode(bytes, 0, bytes.length, out);
+    }
+
     //
     //  Factory methods
     //
@@ -25,6 +25,12 @@
  */
 package chat.dim.format;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.Arrays;
 
 import chat.dim.protocol.TransportableData;
@@ -40,23 +46,330 @@ public abstract class BaseData implements TransportableData {
     public static final String HEX     = "hex";
     // ...
 
+    /**
+     *  Retention policy for the two representations
+     *  <p>
+     *      Once one side has been computed from the other, this decides
+     *      which of them will be kept, so long-lived data need not hold both.
+     *  </p>
+     */
+    public enum Retention {
+        BOTH,     // keep encoded string & decoded bytes
+        ENCODED,  // keep encoded string only
+        DECODED,  // keep decoded bytes only
+        SOFT,     // keep the original one strongly, and the other one softly
+    }
+
+    // global default policy
+    public static Retention defaultRetention = Retention.BOTH;
+
     protected String string;  // encoded string
     protected byte[] binary;  // decoded bytes
 
+    private SoftReference<String> softString;
+    private SoftReference<byte[]> softBinary;
+
+    // null means using the default policy
+    private Retention retention;
+
+    // whether this data was built from the encoded string (or decoded bytes),
+    // the original form is kept strongly by SOFT policy
+    private final boolean fromString;
+
+    // hash code of decoded bytes, 0 means not calculated yet
+    private int hash;
+
     protected BaseData(String str) {
         super();
         assert str != null : "encoded string should not be null";
         string = str;
+        fromString = true;
         // lazy load
         binary = null;
+        softString = null;
+        softBinary = null;
+        retention = null;
     }
 
     protected BaseData(byte[] bytes) {
         super();
         assert bytes != null : "decoded data should not be null";
         binary = bytes;
+        fromString = false;
         // lazy load
         string = null;
+        softString = null;
+        softBinary = null;
+        retention = null;
+    }
+
+    //
+    //  Retention
+    //
+
+    public Retention getRetention() {
+        Retention policy = retention;
+        return policy == null ? defaultRetention : policy;
+    }
+
+    public void setRetention(Retention policy) {
+        retention = policy;
+        // release the representation which should not be kept now
+        String str = string;
+        byte[] bytes = binary;
+        if (str == null || bytes == null) {
+            // only one side
+            return;
+        }
+        switch (getRetention()) {
+            case ENCODED:
+                binary = null;
+                break;
+            case DECODED:
+                string = null;
+                break;
+            case SOFT:
+                softenDerived(str, bytes);
+                break;
+        }
+    }
+
+    // keep the original form strongly, and the derived one softly
+    private void softenDerived(String str, byte[] bytes) {
+        if (fromString) {
+            string = str;
+            softBinary = new SoftReference<>(bytes);
+            binary = null;
+        } else {
+            binary = bytes;
+            softString = new SoftReference<>(str);
+            string = null;
+        }
+    }
+
+    /**
+     *  Get encoded string if it is still kept
+     *
+     * @return null if not computed or released
+     */
+    protected String cachedString() {
+        String str = string;
+        if (str == null) {
+            SoftReference<String> ref = softString;
+            if (ref != null) {
+                str = ref.get();
+            }
+        }
+        return str;
+    }
+
+    /**
+     *  Get decoded bytes if they are still kept
+     *
+     * @return null if not computed or released
+     */
+    protected byte[] cachedBinary() {
+        byte[] bytes = binary;
+        if (bytes == null) {
+            SoftReference<byte[]> ref = softBinary;
+            if (ref != null) {
+                bytes = ref.get();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     *  Keep the encoded string (computed from the decoded bytes) by policy
+     *
+     * @param str - encoded string
+     */
+    protected void retainString(String str) {
+        if (str == null) {
+            assert false : "failed to encode data";
+            return;
+        } else if (binary == null) {
+            // the only one representation, must keep it
+            string = str;
+            return;
+        }
+        switch (getRetention()) {
+            case ENCODED:
+                string = str;
+                binary = null;
+                softBinary = null;
+                break;
+            case DECODED:
+                // drop it
+                break;
+            case SOFT:
+                softenDerived(str, binary);
+                break;
+            default:
+                string = str;
+                break;
+        }
+    }
+
+    /**
+     *  Keep the decoded bytes (computed from the encoded string) by policy
+     *
+     * @param bytes - decoded bytes
+     */
+    protected void retainBinary(byte[] bytes) {
+        if (bytes == null) {
+            // decode failed, keep the encoded string
+            return;
+        } else if (string == null) {
+            // the only one representation, must keep it
+            binary = bytes;
+            return;
+        }
+        switch (getRetention()) {
+            case ENCODED:
+                // drop it
+                break;
+            case DECODED:
+                binary = bytes;
+                string = null;
+                softString = null;
+                break;
+            case SOFT:
+                softenDerived(string, bytes);
+                break;
+            default:
+                binary = bytes;
+                break;
+        }
+    }
+
+    //
+    //  Output
+    //
+
+    /**
+     *  Get a read-only view of the decoded bytes (no copy)
+     *
+     * @return byte buffer; null on error
+     */
+    public ByteBuffer getByteBuffer() {
+        byte[] bytes = getBytes();
+        if (bytes == null) {
+            assert false : "transportable data error";
+            return null;
+        }
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     *  Write the decoded bytes into a blocking channel;
+     *  if only the encoded string is kept, it will be decoded chunk by chunk.
+     *
+     * @param channel - byte sink
+     * @return count of bytes written; -1 on error (nothing written)
+     * @throws IOException on write error, or encoded string error found while streaming
+     */
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        byte[] bytes = cachedBinary();
+        if (bytes == null) {
+            String encoded = cachedString();
+            if (encoded != null && supportsStreamDecoding()) {
+                return decodeTo(encoded, Channels.newOutputStream(channel));
+            }
+            bytes = getBytes();
+            if (bytes == null) {
+                assert false : "transportable data error";
+                return -1;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return bytes.length;
+    }
+
+    /**
+     *  Write the decoded bytes into a stream;
+     *  if only the encoded string is kept, it will be decoded chunk by chunk.
+     *
+     * @param out - byte sink
+     * @return count of bytes written; -1 on error (nothing written)
+     * @throws IOException on write error, or encoded string error found while streaming
+     */
+    public long writeTo(OutputStream out) throws IOException {
+        byte[] bytes = cachedBinary();
+        if (bytes == null) {
+            String encoded = cachedString();
+            if (encoded != null && supportsStreamDecoding()) {
+                return decodeTo(encoded, out);
+            }
+            bytes = getBytes();
+            if (bytes == null) {
+                assert false : "transportable data error";
+                return -1;
+            }
+        }
+        out.write(bytes);
+        return bytes.length;
+    }
+
+    /**
+     *  Write the encoded string into a text sink;
+     *  if only the decoded bytes are kept, they will be encoded chunk by chunk.
+     *
+     * @param out - text sink
+     */
+    public void writeTo(Appendable out) throws IOException {
+        String encoded = cachedString();
+        if (encoded == null) {
+            byte[] bytes = cachedBinary();
+            if (bytes != null && supportsStreamEncoding()) {
+                encodeTo(bytes, out);
+                return;
+            }
+            encoded = toString();
+        }
+        out.append(encoded);
+    }
+
+    /**
+     *  Check whether decodeTo() can stream the encoded string
+     */
+    protected boolean supportsStreamDecoding() {
+        return false;
+    }
+
+    /**
+     *  Check whether encodeTo() can stream the decoded bytes
+     */
+    protected boolean supportsStreamEncoding() {
+        return false;
+    }
+
+    /**
+     *  Decode the encoded string into the sink without keeping the result;
+     *  called only if supportsStreamDecoding() returns true.
+     *
+     * @param encoded - encoded string
+     * @param out     - byte sink
+     * @return count of bytes written
+     * @throws IOException on write error, or encoded string error (after partial output)
+     */
+    protected long decodeTo(String encoded, OutputStream out) throws IOException {
+        throw new IOException("stream decoding not supported: " + getEncoding());
+    }
+
+    /**
+     *  Encode the decoded bytes into the sink without keeping the result;
+     *  called only if supportsStreamEncoding() returns true.
+     *
+     * @param bytes - decoded bytes
+     * @param out   - text sink
+     * @throws IOException on write error
+     */
+    protected void encodeTo(byte[] bytes, Appendable out) throws IOException {
+        throw new IOException("stream encoding not supported: " + getEncoding());
     }
 
     //
@@ -181,17 +494,33 @@ public abstract class BaseData implements TransportableData {
         if (other == null || other.isEmpty()) {
             return isEmpty();
         }
+        // compare with calculated hash codes
+        int thisHash = hash;
+        int thatHash = other.hash;
+        if (thisHash != 0 && thatHash != 0 && thisHash != thatHash) {
+            return false;
+        }
         // compare with inner bytes
-        byte[] thisBytes = binary;
-        byte[] thatBytes = other.binary;
+        byte[] thisBytes = cachedBinary();
+        byte[] thatBytes = other.cachedBinary();
         if (thisBytes != null && thatBytes != null) {
             return Arrays.equals(thisBytes, thatBytes);
         }
-        // compare with inner string
-        String thisString = string;
-        String thatString = other.string;
-        if (thisString != null && thatString != null) {
-            return thisString.equals(thatString);
+        // compare with inner string (same encoding only)
+        String thisString = cachedString();
+        String thatString = other.cachedString();
+        if (thisString != null && thatString != null && getClass() == other.getClass()) {
+            String thisEncoding = getEncoding();
+            String thatEncoding = other.getEncoding();
+            if (thisEncoding == null ? thatEncoding == null : thisEncoding.equals(thatEncoding)) {
+                if (thisString.equals(thatString)) {
+                    return true;
+                } else if (isCanonical(thisString) && isCanonical(thatString)) {
+                    // both are exactly what the encoder outputs,
+                    // so different strings mean different data
+                    return false;
+                }
+            }
         }
         // compare with decoded bytes
         thisBytes = getBytes();
@@ -199,6 +528,17 @@ public abstract class BaseData implements TransportableData {
         return Arrays.equals(thisBytes, thatBytes);
     }
 
+    /**
+     *  Check whether the encoded string is in canonical form
+     *  (one data has only one such string with this encoding)
+     *
+     * @param encoded - encoded string
+     * @return false if the data may be encoded into other strings
+     */
+    protected boolean isCanonical(String encoded) {
+        return false;
+    }
+
     //
     //  CharSequence
     //
@@ -221,8 +561,13 @@ public abstract class BaseData implements TransportableData {
 
     @Override
     public int hashCode() {
-        byte[] bytes = getBytes();
-        return Arrays.hashCode(bytes);
+        int code = hash;
+        if (code == 0) {
+            byte[] bytes = getBytes();
+            code = Arrays.hashCode(bytes);
+            hash = code;
+        }
+        return code;
     }
 
 }
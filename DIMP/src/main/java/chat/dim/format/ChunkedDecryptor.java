@@ -0,0 +1,161 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import chat.dim.protocol.DecryptKey;
+
+
+/**
+ *  Chunked File Decryptor
+ *  <p>
+ *      Chunks are fetched, verified and decrypted in parallel,
+ *      while the plaintext is written to the sink in order;
+ *      at most 'window' chunks are in flight, so the whole file
+ *      will never be held in memory.
+ *  </p>
+ *  <p>
+ *      The decrypt key must be safe to use from multiple threads.
+ *  </p>
+ */
+public class ChunkedDecryptor {
+
+    private final ForkJoinPool pool;
+    private final int window;
+
+    public ChunkedDecryptor(ForkJoinPool pool, int window) {
+        super();
+        assert window > 0 : "window error: " + window;
+        this.pool = pool;
+        this.window = window;
+    }
+
+    public ChunkedDecryptor() {
+        this(ForkJoinPool.commonPool(), 2 * ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     *  Decrypt chunks into sink
+     *
+     * @param info   - chunked file info
+     * @param source - encrypted chunks
+     * @param key    - decrypt key
+     * @param sink   - plaintext output
+     * @return total bytes written
+     * @throws IOException on chunk missing, broken or decrypt failed
+     */
+    public long decrypt(ChunkedFile info, ChunkSource source, DecryptKey key, OutputStream sink) throws IOException {
+        List<String> digests = info.getDigests();
+        if (digests == null) {
+            throw new IOException("chunk digests error");
+        }
+        int size = info.getChunkSize();
+        if (size <= 0) {
+            throw new IOException("chunk size error");
+        }
+        int count = digests.size();
+        ArrayDeque<Future<byte[]>> tasks = new ArrayDeque<>(Math.min(count, window));
+        int next = 0;
+        long total = 0;
+        try {
+            for (int index = 0; index < count; ++index) {
+                // keep the window full
+                while (next < count && next < index + window) {
+                    tasks.addLast(pool.submit(newTask(info, next, source, key)));
+                    ++next;
+                }
+                byte[] plaintext = await(tasks.removeFirst(), index);
+                // all chunks are full except the last one
+                if (plaintext.length > size || (plaintext.length < size && index + 1 < count)) {
+                    throw new IOException("chunk " + index + " size not match: " + plaintext.length + ", " + size);
+                }
+                sink.write(plaintext);
+                total += plaintext.length;
+            }
+        } finally {
+            // stop the rest on error
+            for (Future<byte[]> task : tasks) {
+                task.cancel(true);
+            }
+        }
+        long length = info.getLength();
+        if (length >= 0 && length != total) {
+            throw new IOException("file length not match: " + total + ", " + length);
+        }
+        return total;
+    }
+
+    protected Callable<byte[]> newTask(ChunkedFile info, int index, ChunkSource source, DecryptKey key) {
+        String digest = info.getDigests().get(index);
+        Map<String, Object> params = info.getParams(index);
+        // each chunk gets its own params map
+        Map<String, Object> extra = params == null ? new HashMap<>() : new HashMap<>(params);
+        return () -> decryptChunk(index, digest, source, key, extra);
+    }
+
+    protected byte[] decryptChunk(int index, String digest, ChunkSource source, DecryptKey key,
+                                  Map<String, Object> params) throws IOException {
+        byte[] ciphertext = source.read(digest);
+        if (ciphertext == null) {
+            throw new IOException("chunk " + index + " not found: " + digest);
+        } else if (!digest.equalsIgnoreCase(DigestHelper.sha256(ciphertext))) {
+            throw new IOException("chunk " + index + " digest not match: " + digest);
+        }
+        byte[] plaintext = key.decrypt(ciphertext, params);
+        if (plaintext == null) {
+            throw new IOException("failed to decrypt chunk " + index + ": " + digest);
+        }
+        return plaintext;
+    }
+
+    private static byte[] await(Future<byte[]> task, int index) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted at chunk " + index, e);
+        } catch (ExecutionException e) {
+            // fork-join may wrap the checked exception
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    throw new IOException(cause.getMessage(), e);
+                }
+            }
+            throw new IOException("failed to decrypt chunk " + index, e.getCause());
+        }
+    }
+
+}
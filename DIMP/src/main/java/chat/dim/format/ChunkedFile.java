@@ -0,0 +1,163 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import chat.dim.type.Dictionary;
+
+
+/**
+ *  Chunked File Info
+ *
+ *  <blockquote><pre>
+ *  {
+ *      "size"    : 1048576,          // plaintext bytes per chunk
+ *      "length"  : 123456789,        // total plaintext length
+ *      "digests" : ["{HEX}", ...],   // sha256(encrypted chunk)
+ *      "params"  : [{...}, ...]      // decrypt params for each chunk (optional)
+ *  }
+ *  </pre></blockquote>
+ *
+ *  <p>
+ *      The file content is split into chunks and encrypted one by one,
+ *      each encrypted chunk is saved with its digest as name.
+ *  </p>
+ */
+public class ChunkedFile extends Dictionary {
+
+    private List<String> digests;
+
+    public ChunkedFile(Map<String, Object> info) {
+        super(info);
+        // lazy load
+        digests = null;
+    }
+
+    public ChunkedFile(int chunkSize, long length, List<String> chunkDigests, List<Map<String, Object>> params) {
+        super();
+        put("size", chunkSize);
+        put("length", length);
+        put("digests", chunkDigests);
+        if (params != null) {
+            assert params.size() == chunkDigests.size() : "chunk params error: " + params.size();
+            put("params", params);
+        }
+        digests = chunkDigests;
+    }
+
+    /**
+     *  Plaintext bytes per chunk
+     *
+     * @return -1 on error
+     */
+    public int getChunkSize() {
+        long size = getLong("size", 0L);
+        if (size <= 0 || size > Integer.MAX_VALUE) {
+            return -1;
+        }
+        return (int) size;
+    }
+
+    public long getLength() {
+        return getLong("length", -1L);
+    }
+
+    public int getCount() {
+        List<String> array = getDigests();
+        return array == null ? 0 : array.size();
+    }
+
+    /**
+     *  Digests of encrypted chunks
+     *
+     * @return null on error
+     */
+    public List<String> getDigests() {
+        List<String> array = digests;
+        if (array == null) {
+            Object value = get("digests");
+            if (!(value instanceof List)) {
+                return null;
+            }
+            List<?> items = (List<?>) value;
+            array = new ArrayList<>(items.size());
+            for (Object item : items) {
+                // the digests come from message, check them all
+                if (!(item instanceof String) || !DigestHelper.isDigest((String) item)) {
+                    return null;
+                }
+                array.add((String) item);
+            }
+            digests = array;
+        }
+        return array;
+    }
+
+    /**
+     *  Get decrypt params for chunk
+     *
+     * @param index - chunk index
+     * @return null if not set
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getParams(int index) {
+        Object value = get("params");
+        if (value instanceof List) {
+            List<?> array = (List<?>) value;
+            if (index < array.size()) {
+                Object item = array.get(index);
+                if (item instanceof Map) {
+                    return (Map<String, Object>) item;
+                }
+            }
+        }
+        return null;
+    }
+
+    //
+    //  Factory
+    //
+
+    @SuppressWarnings("unchecked")
+    public static ChunkedFile parse(Object info) {
+        if (info == null) {
+            return null;
+        } else if (info instanceof ChunkedFile) {
+            return (ChunkedFile) info;
+        } else if (info instanceof Dictionary) {
+            info = ((Dictionary) info).toMap();
+        }
+        if (info instanceof Map) {
+            return new ChunkedFile((Map<String, Object>) info);
+        }
+        assert false : "chunked file info error: " + info;
+        return null;
+    }
+
+}
@@ -0,0 +1,90 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+
+/**
+ *  Data with a plain string codec (Base58, Hex, ...)
+ *  <p>
+ *      Subclasses only provide the codec functions,
+ *      the two representations are converted and kept here.
+ *  </p>
+ */
+public abstract class CodedData extends BaseData {
+
+    protected CodedData(String encoded) {
+        super(encoded);
+    }
+
+    protected CodedData(byte[] bytes) {
+        super(bytes);
+    }
+
+    /**
+     *  Decode string with the encoding of this data
+     *
+     * @param encoded - encoded string
+     * @return decoded bytes; null on error
+     */
+    protected abstract byte[] decodeString(String encoded);
+
+    /**
+     *  Encode bytes with the encoding of this data
+     *
+     * @param bytes - decoded bytes
+     * @return encoded string
+     */
+    protected abstract String encodeBytes(byte[] bytes);
+
+    //
+    //  TransportableData
+    //
+
+    @Override
+    public byte[] getBytes() {
+        byte[] bytes = cachedBinary();
+        if (bytes == null) {
+            String encoded = cachedString();
+            assert encoded != null : getEncoding() + " data error";
+            bytes = decodeString(encoded);
+            retainBinary(bytes);
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        String encoded = cachedString();
+        if (encoded == null) {
+            byte[] bytes = cachedBinary();
+            assert bytes != null : getEncoding() + " data error";
+            encoded = encodeBytes(bytes);
+            retainString(encoded);
+        }
+        return encoded;
+    }
+
+}
@@ -0,0 +1,265 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import chat.dim.protocol.AsymmetricAlgorithms;
+import chat.dim.protocol.Command;
+import chat.dim.protocol.ContentType;
+import chat.dim.protocol.DocumentType;
+import chat.dim.protocol.SymmetricAlgorithms;
+import chat.dim.rfc.MIME;
+
+
+/**
+ *  Deflate with preset dictionary for serialized messages
+ *  <p>
+ *      Output is in zlib format (RFC 1950), the header carries the
+ *      Adler-32 of the dictionary, so the receiver can pick the right
+ *      one from the registered dictionaries;
+ *      data that cannot be shrunk will be returned as it is.
+ *  </p>
+ */
+public class DictionaryCompressor {
+
+    private final byte[] dictionary;
+    private final int dictionaryId;
+
+    private final int level;
+
+    // default limit of decompressed size, against zip bombs
+    public static final int MAX_DECOMPRESSED_SIZE = 8 * 1024 * 1024;
+
+    // Adler-32 => dictionary, for decompressing
+    private static final Map<Integer, byte[]> dictionaries = new ConcurrentHashMap<>();
+
+    // deflater/inflater are expensive to create, reuse them in each thread;
+    // shared by all compressors, so no native memory is left behind
+    // by a discarded compressor
+    private static final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(Deflater::new);
+    private static final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
+    public DictionaryCompressor(byte[] dict, int compressionLevel) {
+        super();
+        dictionary = dict;
+        dictionaryId = register(dict);
+        level = compressionLevel;
+    }
+
+    public DictionaryCompressor(byte[] dict) {
+        this(dict, Deflater.BEST_COMPRESSION);
+    }
+
+    public DictionaryCompressor() {
+        this(DEFAULT_DICTIONARY);
+    }
+
+    public byte[] getDictionary() {
+        return dictionary;
+    }
+
+    public int getDictionaryId() {
+        return dictionaryId;
+    }
+
+    /**
+     *  Register dictionary for decompressing
+     *
+     * @param dict - preset dictionary
+     * @return Adler-32 of the dictionary
+     */
+    public static int register(byte[] dict) {
+        Adler32 adler = new Adler32();
+        adler.update(dict, 0, dict.length);
+        int id = (int) adler.getValue();
+        dictionaries.put(id, dict);
+        return id;
+    }
+
+    /**
+     *  Check zlib header: CM = 8 (deflate), CINFO <= 7, FCHECK
+     */
+    public static boolean isCompressed(byte[] data) {
+        if (data == null || data.length < 2) {
+            return false;
+        }
+        int cmf = data[0] & 0xFF;
+        int flg = data[1] & 0xFF;
+        return (cmf & 0x0F) == 8 && (cmf >> 4) <= 7 && ((cmf << 8) | flg) % 31 == 0;
+    }
+
+    /**
+     *  Compress serialized message
+     *
+     * @param data - serialized message (JSON)
+     * @return compressed data, or the original data if not smaller
+     */
+    public byte[] compress(byte[] data) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setLevel(level);
+        deflater.setDictionary(dictionary);
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] buffer = new byte[data.length + 64];
+        int count = 0;
+        while (!deflater.finished()) {
+            count += deflater.deflate(buffer, count, buffer.length - count);
+            if (count >= data.length) {
+                // not smaller
+                return data;
+            }
+        }
+        byte[] out = new byte[count];
+        System.arraycopy(buffer, 0, out, 0, count);
+        return out;
+    }
+
+    public static byte[] decompress(byte[] data) {
+        return decompress(data, MAX_DECOMPRESSED_SIZE);
+    }
+
+    /**
+     *  Decompress data with the registered dictionary
+     *
+     * @param data    - compressed data, or original data
+     * @param maxSize - max length of decompressed data
+     * @return null on error, or decompressed data too big
+     */
+    public static byte[] decompress(byte[] data, int maxSize) {
+        if (!isCompressed(data)) {
+            // not compressed
+            return data;
+        }
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(data);
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(data.length * 4L, maxSize));
+        byte[] buffer = new byte[4096];
+        int count;
+        try {
+            while (!inflater.finished()) {
+                count = inflater.inflate(buffer);
+                if (count > 0) {
+                    if (out.size() + count > maxSize) {
+                        // too big
+                        return null;
+                    }
+                    out.write(buffer, 0, count);
+                } else if (inflater.needsDictionary()) {
+                    byte[] dict = dictionaries.get(inflater.getAdler());
+                    if (dict == null) {
+                        // unknown dictionary
+                        return null;
+                    }
+                    inflater.setDictionary(dict);
+                } else if (inflater.needsInput()) {
+                    // truncated
+                    return null;
+                }
+            }
+        } catch (DataFormatException e) {
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    //
+    //  Default dictionary
+    //
+
+    /**
+     *  Built from common keys and values of the protocol;
+     *  the most frequent fragments are placed at the end,
+     *  so they are the nearest for back references.
+     */
+    public static final byte[] DEFAULT_DICTIONARY = buildDefaultDictionary();
+
+    static {
+        register(DEFAULT_DICTIONARY);
+    }
+
+    private static byte[] buildDefaultDictionary() {
+        StringBuilder sb = new StringBuilder(2048);
+        // MIME headers in data URI
+        String[] mimeTypes = {
+                MIME.ContentType.APP_OCTET_STREAM, MIME.ContentType.APP_JSON,
+                MIME.ContentType.VIDEO_MP4, MIME.ContentType.AUDIO_MP4,
+                MIME.ContentType.IMAGE_GIF, MIME.ContentType.IMAGE_WEB_P,
+                MIME.ContentType.IMAGE_PNG, MIME.ContentType.IMAGE_JPG,
+        };
+        for (String type : mimeTypes) {
+            sb.append("\"data:").append(type).append(";base64,");
+        }
+        // documents & keys
+        sb.append("{\"algorithm\":\"").append(AsymmetricAlgorithms.ECC).append("\",\"data\":\"-----BEGIN PUBLIC KEY-----\\n");
+        sb.append("{\"algorithm\":\"").append(AsymmetricAlgorithms.RSA).append("\",\"data\":\"");
+        sb.append("\"type\":\"").append(DocumentType.BULLETIN).append("\",");
+        sb.append("\"type\":\"").append(DocumentType.VISA).append("\",");
+        sb.append("\"did\":\"\",\"data\":\"{\\\"name\\\":\\\"\\\",\\\"avatar\\\":\\\"\",\"signature\":\"");
+        sb.append("\"meta\":{\"type\":\"1\",\"key\":{\"algorithm\":\"ECC\",\"data\":\"\"},\"seed\":\"\",\"fingerprint\":\"\"},");
+        sb.append("\"algorithm\":\"").append(SymmetricAlgorithms.PLAIN).append("\"");
+        sb.append("\"algorithm\":\"").append(SymmetricAlgorithms.AES).append("\"");
+        // commands
+        String[] commands = {
+                Command.DOCUMENTS, Command.META, Command.RECEIPT,
+                "handshake", "login", "report", "mute", "block",
+                "invite", "expel", "join", "quit", "reset", "query",
+        };
+        for (String cmd : commands) {
+            sb.append("\"command\":\"").append(cmd).append("\",");
+        }
+        // content types
+        String[] types = {
+                ContentType.FORWARD, ContentType.ARRAY, ContentType.CUSTOMIZED,
+                ContentType.QUOTE, ContentType.NAME_CARD, ContentType.PAGE,
+                ContentType.VIDEO, ContentType.AUDIO, ContentType.FILE,
+                ContentType.IMAGE, ContentType.HISTORY, ContentType.COMMAND,
+                ContentType.TEXT,
+        };
+        for (String type : types) {
+            sb.append("\"type\":\"").append(type).append("\",");
+        }
+        // content fields
+        sb.append("\"text\":\"\",\"filename\":\"\",\"URL\":\"https://\",\"key\":{\"algorithm\":\"AES\",\"data\":\"\",\"iv\":\"\"},");
+        sb.append("\"sn\":,\"time\":");
+        // message fields (most frequent)
+        sb.append("{\"sender\":\"\",\"receiver\":\"\",\"group\":\"\",\"type\":\"\",\"time\":");
+        sb.append(",\"data\":\"\",\"keys\":{\"digest\":\"\",\"\":\"\"},\"signature\":\"\",\"meta\":{},\"visa\":{}");
+        sb.append(",\"receiver\":\"everyone@everywhere\",\"receiver\":\"anyone@anywhere\"");
+        sb.append("{\"sender\":\"\",\"receiver\":\"\",\"time\":,\"data\":\"\",\"keys\":{\"\":\"\"},\"signature\":\"\"}");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,181 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+
+/**
+ *  Dictionary Trainer
+ *  <p>
+ *      Builds a preset dictionary for DictionaryCompressor from a local
+ *      corpus of serialized messages (JSON, one message per line):
+ *      key fragments ('"name":"') and short string values are counted,
+ *      then the most valuable fragments (count * length) are picked
+ *      and placed at the end of the dictionary.
+ *  </p>
+ */
+public class DictionaryTrainer {
+
+    // longest string value to be a fragment (IDs, types, commands, ...)
+    public static final int MAX_VALUE_LENGTH = 64;
+
+    // deflate window is 32KB
+    public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+    private final Map<String, Integer> counts = new HashMap<>();
+
+    /**
+     *  Count fragments in one serialized message
+     *
+     * @param json - UTF-8 JSON text
+     */
+    public void add(String json) {
+        int len = json.length();
+        int pos = 0;
+        int start;
+        char ch;
+        while (pos < len) {
+            ch = json.charAt(pos);
+            if (ch != '"') {
+                ++pos;
+                continue;
+            }
+            // string
+            start = pos++;
+            while (pos < len) {
+                ch = json.charAt(pos++);
+                if (ch == '\\') {
+                    ++pos;
+                } else if (ch == '"') {
+                    break;
+                }
+            }
+            int stop = pos;
+            // check key
+            while (pos < len && json.charAt(pos) == ' ') {
+                ++pos;
+            }
+            if (pos < len && json.charAt(pos) == ':') {
+                ++pos;
+                if (pos < len && json.charAt(pos) == '"') {
+                    // '"name":"'
+                    count(json.substring(start, pos + 1));
+                } else {
+                    // '"name":'
+                    count(json.substring(start, pos));
+                }
+            } else if (stop - start - 2 <= MAX_VALUE_LENGTH) {
+                count(json.substring(start, stop));
+            }
+        }
+    }
+
+    private void count(String fragment) {
+        counts.merge(fragment, 1, Integer::sum);
+    }
+
+    /**
+     *  Build dictionary
+     *
+     * @param maxSize - max length of dictionary
+     * @return dictionary bytes
+     */
+    public byte[] build(int maxSize) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            // fragments seen only once are useless
+            if (entry.getValue() > 1) {
+                entries.add(entry);
+            }
+        }
+        // most valuable first
+        entries.sort((a, b) -> Long.compare(score(b), score(a)));
+        List<byte[]> picked = new ArrayList<>();
+        int size = 0;
+        byte[] bytes;
+        for (Map.Entry<String, Integer> entry : entries) {
+            bytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            if (size + bytes.length > maxSize) {
+                continue;
+            }
+            picked.add(bytes);
+            size += bytes.length;
+        }
+        // most valuable at the end
+        byte[] dict = new byte[size];
+        int pos = size;
+        for (byte[] fragment : picked) {
+            pos -= fragment.length;
+            System.arraycopy(fragment, 0, dict, pos, fragment.length);
+        }
+        return dict;
+    }
+
+    private static long score(Map.Entry<String, Integer> entry) {
+        return (long) entry.getValue() * entry.getKey().length();
+    }
+
+    public void addFile(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            lines.forEach(this::add);
+        }
+    }
+
+    public void addPath(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.walk(path)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    addFile(file);
+                }
+            }
+        } else {
+            addFile(path);
+        }
+    }
+
+    /**
+     *  Build dictionary from corpus
+     *
+     * @param corpus  - corpus file, or directory of corpus files
+     * @param maxSize - max length of dictionary
+     * @return dictionary bytes
+     */
+    public static byte[] train(Path corpus, int maxSize) throws IOException {
+        DictionaryTrainer trainer = new DictionaryTrainer();
+        trainer.addPath(corpus);
+        return trainer.build(Math.min(maxSize, MAX_DICTIONARY_SIZE));
+    }
+
+}
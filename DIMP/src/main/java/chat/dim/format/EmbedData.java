@@ -25,9 +25,13 @@
  */
 package chat.dim.format;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import chat.dim.protocol.TransportableData;
 import chat.dim.rfc.DataURI;
 import chat.dim.rfc.MIME;
+import chat.dim.rfc.MediaType;
 
 
 /**
@@ -55,11 +59,20 @@ public class EmbedData extends BaseData {
     //  Uri Headers
     //
 
+    public DataURI.Header getDataHeader() {
+        return dataHead;
+    }
+
     // default is "text/plain"
     public String getMimeType() {
         return dataHead.mimeType;
     }
 
+    // media type for mime type (interned if registered)
+    public MediaType getMediaType() {
+        return MediaType.get(dataHead.mimeType);
+    }
+
     // default is "us-ascii"
     public String getCharset() {
         return dataHead.getCharset();
@@ -94,19 +107,27 @@ public class EmbedData extends BaseData {
             return uri;
         }
         // check encoded data uri
-        String txt = string;
+        String txt = cachedString();
         if (txt == null || txt.isEmpty()) {
             // encode data to build uri
-            byte[] bin = binary;
+            byte[] bin = cachedBinary();
             if (bin == null/* || bin.length == 0*/) {
                 return null;
             }
             assert bin.length > 0 : "embed data empty";
             // encode body
-            String base64 = Base64.encode(bin);
-            assert base64 != null && !base64.isEmpty() : "failed to encode " + bin.length + " byte(s)";
+            String body = encodeBody(bin);
+            if (body == null) {
+                assert false : "failed to encode " + bin.length + " byte(s)";
+                return null;
+            }
             // build uri with header
-            uri = new DataURI(dataHead, base64);
+            uri = new DataURI(dataHead, body);
+            if (getRetention() != Retention.BOTH) {
+                // the encoded form may not be kept,
+                // so do not hold it here too
+                return uri;
+            }
         } else {
             assert txt.startsWith("data:") : "data uri error: " + txt;
             uri = DataURI.parse(txt);
@@ -121,29 +142,34 @@ public class EmbedData extends BaseData {
 
     @Override
     public String getEncoding() {
-        return dataHead.encoding;  // "base64"
+        return dataHead.encoding;  // "base64", or null for URL escaped
     }
 
     @Override
     public byte[] getBytes() {
-        byte[] bin = binary;
+        byte[] bin = cachedBinary();
         if (bin == null) {
-            DataURI uri = dataUri;
+            DataURI uri = getDataURI();
             if (uri != null/* && !uri.isEmpty()*/) {
-                String base64 = uri.body;
-                if (base64 != null && !base64.isEmpty()) {
-                    bin = Base64.decode(base64);
+                // decode body of the URI
+                CharSequence body = uri.getBody();
+                if (body != null && body.length() > 0) {
+                    bin = decodeBody(body);
                 }
             }
             assert uri != null && !uri.isEmpty() : "failed to decode data uri";
-            binary = bin;
+            retainBinary(bin);
+            if (cachedString() == null) {
+                // encoded form released
+                dataUri = null;
+            }
         }
         return bin;
     }
 
     @Override
     public String toString() {
-        String text = string;
+        String text = cachedString();
         if (text == null) {
             DataURI uri = getDataURI();
             if (uri != null/* && !uri.isEmpty()*/) {
@@ -152,29 +178,137 @@ public class EmbedData extends BaseData {
                 text = "";
                 assert false : "failed to encode data uri";
             }
-            string = text;
+            retainString(text);
         }
         return text;
     }
 
+    /**
+     *  Write data URI into a text sink: "data:" + header + "," + body;
+     *  if only the decoded bytes are kept, they will be encoded into
+     *  the sink directly, without building the URI string.
+     *
+     * @param out - text sink
+     */
+    @Override
+    public void writeTo(Appendable out) throws IOException {
+        DataURI uri = dataUri;
+        if (uri != null && cachedString() == null) {
+            uri.writeTo(out);
+            return;
+        }
+        super.writeTo(out);
+    }
+
+    @Override
+    protected boolean supportsStreamEncoding() {
+        String encoding = dataHead.encoding;
+        if (encoding == null || encoding.isEmpty()) {
+            return true;
+        }
+        return BASE_64.equals(encoding) && Base64Data.isBuiltinCoder();
+    }
+
+    @Override
+    protected boolean supportsStreamDecoding() {
+        return BASE_64.equals(dataHead.encoding) && Base64Data.isBuiltinCoder();
+    }
+
+    @Override
+    protected void encodeTo(byte[] bytes, Appendable out) throws IOException {
+        out.append("data:").append(dataHead.toString()).append(',');
+        String encoding = dataHead.encoding;
+        if (encoding == null || encoding.isEmpty()) {
+            PercentCodec.encode(bytes, 0, bytes.length, out);
+        } else {
+            Base64Codec.encode(bytes, 0, bytes.length, out);
+        }
+    }
+
+    @Override
+    protected long decodeTo(String encoded, OutputStream out) throws IOException {
+        DataURI uri = getDataURI();
+        if (uri == null) {
+            throw new IOException("data uri error");
+        }
+        CharSequence base64 = uri.getBody();
+        long count = base64 == null ? 0 : Base64Codec.decode(base64, 0, base64.length(), out);
+        if (count < 0) {
+            throw new IOException("base64 data error");
+        }
+        return count;
+    }
+
+    /**
+     *  Encode body with the encoding in header:
+     *      "base64" - Base64 encoding
+     *      (empty)  - URL escaped encoding (RFC 2397)
+     *
+     * @param data - decoded data
+     * @return encoded body; null for unsupported encoding
+     */
+    protected String encodeBody(byte[] data) {
+        String encoding = dataHead.encoding;
+        if (encoding == null || encoding.isEmpty()) {
+            return PercentCodec.encode(data);
+        } else if (BASE_64.equals(encoding)) {
+            return Base64Data.isBuiltinCoder() ? Base64Codec.encode(data) : Base64.encode(data);
+        }
+        assert false : "data uri encoding not support: " + encoding;
+        return null;
+    }
+
+    /**
+     *  Decode body with the encoding in header
+     *
+     * @param body - encoded body
+     * @return decoded data; null on error
+     */
+    protected byte[] decodeBody(CharSequence body) {
+        String encoding = dataHead.encoding;
+        if (encoding == null || encoding.isEmpty()) {
+            return PercentCodec.decode(body);
+        } else if (BASE_64.equals(encoding)) {
+            return Base64Data.isBuiltinCoder() ? Base64Codec.decode(body) : Base64.decode(body.toString());
+        }
+        assert false : "data uri encoding not support: " + encoding;
+        return null;
+    }
+
     //
     //  Factory methods:
     //
     //      Image URI: "data:image/jpg;base64,{BASE64_ENCODE}"
     //      Audio URI: "data:audio/mp4;base64,{BASE64_ENCODE}"
+    //      Text URI:  "data:text/plain,{URL_ESCAPED}"
     //
 
-    public static TransportableData createImage(byte[] jpeg) {
-        return create(jpeg, MIME.ContentType.IMAGE_JPG);
+    public static TransportableData createImage(byte[] image) {
+        // detect image type from magic number, default is JPEG
+        MediaType type = MediaType.detect(image);
+        if (type != null && type.isImage) {
+            return create(image, type.getContentType());
+        }
+        return create(image, MIME.ContentType.IMAGE_JPG);
     }
 
-    public static TransportableData createAudio(byte[] mp4) {
-        return create(mp4, MIME.ContentType.AUDIO_MP4);
+    public static TransportableData createAudio(byte[] audio) {
+        // detect audio type from magic number, default is MP4
+        MediaType type = MediaType.detect(audio);
+        if (type != null && type.isAudio) {
+            return create(audio, type.getContentType());
+        }
+        return create(audio, MIME.ContentType.AUDIO_MP4);
     }
 
     // create with bytes
     public static TransportableData create(byte[] data, String mimeType) {
-        DataURI.Header head = new DataURI.Header(mimeType, BASE_64, null);
+        return create(data, mimeType, BASE_64);
+    }
+
+    // create with bytes & encoding ("base64", or null for URL escaped)
+    public static TransportableData create(byte[] data, String mimeType, String encoding) {
+        DataURI.Header head = DataURI.Header.create(mimeType, encoding, null);
         return new EmbedData(data, head);
     }
 
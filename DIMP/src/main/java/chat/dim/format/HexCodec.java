@@ -0,0 +1,138 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.util.Arrays;
+
+
+/**
+ *  Hex Codec
+ *  <p>
+ *      Table-driven, encodes to lowercase, decodes both cases.
+ *  </p>
+ */
+public final class HexCodec {
+    private HexCodec() {
+        throw new AssertionError("Utility class cannot be instantiated");
+    }
+
+    private static final char[] ALPHABET = "0123456789abcdef".toCharArray();
+
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < 16; ++i) {
+            DECODE[ALPHABET[i]] = i;
+            DECODE[Character.toUpperCase(ALPHABET[i])] = i;
+        }
+    }
+
+    public static String encode(byte[] data) {
+        return encode(data, 0, data.length);
+    }
+
+    public static String encode(byte[] src, int off, int len) {
+        char[] chars = new char[len << 1];
+        encode(src, off, len, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     *  Encode bytes into characters
+     *
+     * @param src - source data
+     * @param off - start position of source data
+     * @param len - length of source data
+     * @param dst - buffer for encoded characters
+     * @param pos - start position of buffer
+     * @return count of characters written
+     */
+    public static int encode(byte[] src, int off, int len, char[] dst, int pos) {
+        int p = pos;
+        int b;
+        for (int i = off; i < off + len; ++i) {
+            b = src[i] & 0xFF;
+            dst[p++] = ALPHABET[b >>> 4];
+            dst[p++] = ALPHABET[b & 0x0F];
+        }
+        return p - pos;
+    }
+
+    public static byte[] decode(CharSequence src) {
+        return decode(src, 0, src.length());
+    }
+
+    /**
+     *  Decode characters in range
+     *
+     * @param src   - encoded string
+     * @param start - start position
+     * @param end   - end position (exclusive)
+     * @return decoded data; null on error
+     */
+    public static byte[] decode(CharSequence src, int start, int end) {
+        if (((end - start) & 1) != 0) {
+            return null;
+        }
+        byte[] data = new byte[(end - start) >> 1];
+        char hi, lo;
+        int h, l;
+        for (int i = start, p = 0; i < end; i += 2) {
+            hi = src.charAt(i);
+            lo = src.charAt(i + 1);
+            h = hi < 128 ? DECODE[hi] : -1;
+            l = lo < 128 ? DECODE[lo] : -1;
+            if ((h | l) < 0) {
+                return null;
+            }
+            data[p++] = (byte) (h << 4 | l);
+        }
+        return data;
+    }
+
+    /**
+     *  Check whether the string is exactly what the encoder outputs
+     *
+     * @param src - encoded string
+     * @return false on uppercase letters or odd length
+     */
+    public static boolean isCanonical(CharSequence src) {
+        final int len = src.length();
+        if ((len & 1) != 0) {
+            return false;
+        }
+        char ch;
+        for (int i = 0; i < len; ++i) {
+            ch = src.charAt(i);
+            if ((ch < '0' || ch > '9') && (ch < 'a' || ch > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
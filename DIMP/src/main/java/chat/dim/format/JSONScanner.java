@@ -0,0 +1,406 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ *  JSON Scanner
+ *  <p>
+ *      Scans UTF-8 encoded JSON in place: values can be skipped
+ *      (only their offsets are recorded) or read on demand.
+ *  </p>
+ */
+public final class JSONScanner {
+
+    // max nesting level of objects/arrays
+    public static final int MAX_DEPTH = 64;
+
+    private final byte[] json;
+    private final int end;
+    private int pos;
+
+    // current nesting level
+    private int depth;
+
+    public JSONScanner(byte[] json, int start, int end) {
+        super();
+        this.json = json;
+        this.pos = start;
+        this.end = end;
+        this.depth = 0;
+    }
+
+    public int getPosition() {
+        return pos;
+    }
+
+    public void setPosition(int position) {
+        pos = position;
+    }
+
+    public boolean hasMore() {
+        skipWhitespace();
+        return pos < end;
+    }
+
+    /**
+     *  Peek next non-whitespace char
+     *
+     * @return -1 on end
+     */
+    public int peek() {
+        skipWhitespace();
+        return pos < end ? json[pos] : -1;
+    }
+
+    /**
+     *  Consume next non-whitespace char if it's expected
+     *
+     * @return false on mismatch
+     */
+    public boolean accept(char ch) {
+        skipWhitespace();
+        if (pos < end && json[pos] == ch) {
+            ++pos;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        byte ch;
+        while (pos < end) {
+            ch = json[pos];
+            if (ch == ' ' || ch == '\n' || ch == '\r' || ch == '\t') {
+                ++pos;
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     *  Skip next value without decoding
+     *
+     * @return false on format error
+     */
+    public boolean skipValue() {
+        int ch = peek();
+        switch (ch) {
+            case '"':
+                return skipString();
+            case '{':
+                return skipContainer('{', '}');
+            case '[':
+                return skipContainer('[', ']');
+            case 't':
+                return skipLiteral("true");
+            case 'f':
+                return skipLiteral("false");
+            case 'n':
+                return skipLiteral("null");
+            default:
+                return skipNumber();
+        }
+    }
+
+    /**
+     *  Consume next string and compare it with names (no escape),
+     *  without decoding it
+     *
+     * @param names - UTF-8 encoded candidates
+     * @return index of the matched name; -1 on not matched; -2 on error
+     */
+    public int matchString(byte[]... names) {
+        if (peek() != '"') {
+            return -2;
+        }
+        final int start = pos + 1;
+        if (!skipString()) {
+            return -2;
+        }
+        final int len = pos - 1 - start;
+        byte[] name;
+        int i;
+        for (int index = 0; index < names.length; ++index) {
+            name = names[index];
+            if (name.length != len) {
+                continue;
+            }
+            for (i = 0; i < len; ++i) {
+                if (json[start + i] != name[i]) {
+                    break;
+                }
+            }
+            if (i == len) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private boolean skipString() {
+        // opening quote
+        ++pos;
+        byte ch;
+        while (pos < end) {
+            ch = json[pos++];
+            if (ch == '"') {
+                return true;
+            } else if (ch == '\\') {
+                ++pos;
+            }
+        }
+        return false;
+    }
+
+    private boolean skipContainer(char open, char close) {
+        if (depth >= MAX_DEPTH) {
+            // nested too deep
+            return false;
+        }
+        ++pos;
+        if (accept(close)) {
+            return true;
+        }
+        ++depth;
+        try {
+            return skipMembers(open, close);
+        } finally {
+            --depth;
+        }
+    }
+
+    private boolean skipMembers(char open, char close) {
+        do {
+            if (open == '{') {
+                if (peek() != '"' || !skipString() || !accept(':')) {
+                    return false;
+                }
+            }
+            if (!skipValue()) {
+                return false;
+            }
+        } while (accept(','));
+        return accept(close);
+    }
+
+    private boolean skipLiteral(String word) {
+        int len = word.length();
+        if (pos + len > end) {
+            return false;
+        }
+        for (int i = 0; i < len; ++i) {
+            if (json[pos + i] != word.charAt(i)) {
+                return false;
+            }
+        }
+        pos += len;
+        return true;
+    }
+
+    private boolean skipNumber() {
+        int start = pos;
+        byte ch;
+        while (pos < end) {
+            ch = json[pos];
+            if ((ch >= '0' && ch <= '9') || ch == '-' || ch == '+' || ch == '.' || ch == 'e' || ch == 'E') {
+                ++pos;
+            } else {
+                break;
+            }
+        }
+        return pos > start;
+    }
+
+    /**
+     *  Read next value:
+     *      object => LazyJSONMap (lazy too),
+     *      array  => List,
+     *      string => String,
+     *      number => Integer/Long/Double,
+     *      true/false/null
+     *
+     * @return null on error
+     */
+    public Object readValue() {
+        int ch = peek();
+        switch (ch) {
+            case '"':
+                return readString();
+            case '{': {
+                int start = pos;
+                if (!skipContainer('{', '}')) {
+                    return null;
+                }
+                return LazyJSONMap.index(json, start, pos);
+            }
+            case '[':
+                return readArray();
+            case 't':
+                return skipLiteral("true") ? Boolean.TRUE : null;
+            case 'f':
+                return skipLiteral("false") ? Boolean.FALSE : null;
+            case 'n':
+                skipLiteral("null");
+                return null;
+            default:
+                return readNumber();
+        }
+    }
+
+    private List<Object> readArray() {
+        // check the whole array before decoding its items,
+        // so errors (including nested too deep) stop here
+        final int start = pos;
+        if (!skipContainer('[', ']')) {
+            return null;
+        }
+        final int stop = pos;
+        pos = start + 1;
+        List<Object> array = new ArrayList<>();
+        if (accept(']')) {
+            return array;
+        }
+        do {
+            array.add(readValue());
+        } while (accept(','));
+        pos = stop;
+        return array;
+    }
+
+    private Number readNumber() {
+        int start = pos;
+        boolean decimal = false;
+        byte ch;
+        while (pos < end) {
+            ch = json[pos];
+            if (ch >= '0' && ch <= '9' || ch == '-' || ch == '+') {
+                ++pos;
+            } else if (ch == '.' || ch == 'e' || ch == 'E') {
+                decimal = true;
+                ++pos;
+            } else {
+                break;
+            }
+        }
+        String text = new String(json, start, pos - start, StandardCharsets.ISO_8859_1);
+        try {
+            if (!decimal) {
+                long value = Long.parseLong(text);
+                if (value == (int) value) {
+                    return (int) value;
+                }
+                return value;
+            }
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            // too big for long
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException error) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     *  Read string value at current position
+     *
+     * @return null on error
+     */
+    public String readString() {
+        if (peek() != '"') {
+            return null;
+        }
+        final int start = ++pos;
+        // fast path: no escape
+        byte ch;
+        while (pos < end) {
+            ch = json[pos];
+            if (ch == '"') {
+                return new String(json, start, pos++ - start, StandardCharsets.UTF_8);
+            } else if (ch == '\\') {
+                break;
+            }
+            ++pos;
+        }
+        // slow path
+        StringBuilder sb = new StringBuilder(pos - start + 16);
+        int from = start;
+        while (pos < end) {
+            ch = json[pos];
+            if (ch == '"') {
+                sb.append(new String(json, from, pos - from, StandardCharsets.UTF_8));
+                ++pos;
+                return sb.toString();
+            } else if (ch != '\\') {
+                ++pos;
+                continue;
+            }
+            sb.append(new String(json, from, pos - from, StandardCharsets.UTF_8));
+            if (pos + 1 >= end) {
+                return null;
+            }
+            ch = json[pos + 1];
+            pos += 2;
+            switch (ch) {
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u': {
+                    if (pos + 4 > end) {
+                        return null;
+                    }
+                    int code = 0;
+                    int digit;
+                    for (int i = 0; i < 4; ++i) {
+                        digit = Character.digit(json[pos++], 16);
+                        if (digit < 0) {
+                            return null;
+                        }
+                        code = (code << 4) | digit;
+                    }
+                    sb.append((char) code);
+                    break;
+                }
+                default:
+                    // '"', '\\', '/'
+                    sb.append((char) ch);
+                    break;
+            }
+            from = pos;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,432 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import chat.dim.type.Mapper;
+
+
+/**
+ *  Streaming JSON Writer
+ *  <p>
+ *      Writes a message (or any map) as UTF-8 JSON straight into
+ *      a pooled byte buffer or an output stream, without building
+ *      the intermediate JSON string and its UTF-8 copy;
+ *      encoded forms cached in BaseData are written directly,
+ *      and base64 data with only bytes cached is encoded in place.
+ *  </p>
+ *  <p>
+ *      The pooled writer is not reentrant; a nested call in the same
+ *      thread (e.g.: from BaseData.writeTo()) gets a new writer.
+ *  </p>
+ */
+public final class JSONWriter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] NULL  = "null".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TRUE  = "true".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.UTF_8);
+
+    // buffers for each thread
+    private static final ThreadLocal<JSONWriter> pool = ThreadLocal.withInitial(() -> new JSONWriter(null, 4096));
+
+    // pooled buffer grown larger than this will be dropped on next use
+    private static final int MAX_POOLED_CAPACITY = 64 * 1024;
+
+    // bytes of base64 data encoded at a time (4096 chars)
+    private static final int DATA_CHUNK = 3 * 1024;
+
+    private byte[] buf;
+    private int pos;
+    private OutputStream out;
+    // pooled writer in use
+    private boolean busy;
+
+    private JSONWriter(OutputStream output, int capacity) {
+        super();
+        buf = new byte[capacity];
+        pos = 0;
+        out = output;
+    }
+
+    /**
+     *  Serialize into the pooled buffer of current thread
+     *
+     * @param value - message, map, ...
+     * @return read-only view, valid until next call in the same thread
+     */
+    public static ByteBuffer serialize(Object value) {
+        JSONWriter writer = acquire();
+        try {
+            writer.writeValue(value);
+        } catch (IOException e) {
+            // no stream here
+            throw new UncheckedIOException(e);
+        } finally {
+            // keep the buffer for the caller
+            writer.busy = false;
+        }
+        return ByteBuffer.wrap(writer.buf, 0, writer.pos).asReadOnlyBuffer();
+    }
+
+    public static byte[] toBytes(Object value) {
+        JSONWriter writer = acquire();
+        try {
+            writer.writeValue(value);
+            return Arrays.copyOf(writer.buf, writer.pos);
+        } catch (IOException e) {
+            // no stream here
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.release();
+        }
+    }
+
+    /**
+     *  Serialize into output stream
+     *
+     * @param value - message, map, ...
+     * @param output - output stream
+     */
+    public static void serialize(Object value, OutputStream output) throws IOException {
+        JSONWriter writer = acquire();
+        writer.out = output;
+        try {
+            writer.writeValue(value);
+            writer.flush();
+        } finally {
+            writer.out = null;
+            writer.release();
+        }
+    }
+
+    private static JSONWriter acquire() {
+        JSONWriter writer = pool.get();
+        if (writer.busy) {
+            // nested call, don't touch the buffer in use
+            writer = new JSONWriter(null, 4096);
+        } else if (writer.buf.length > MAX_POOLED_CAPACITY) {
+            // drop the buffer grown by the last big message
+            writer.buf = new byte[4096];
+        }
+        writer.pos = 0;
+        writer.busy = true;
+        return writer;
+    }
+
+    private void release() {
+        pos = 0;
+        busy = false;
+        if (buf.length > MAX_POOLED_CAPACITY) {
+            buf = new byte[4096];
+        }
+    }
+
+    //
+    //  Buffer
+    //
+
+    private void flush() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+
+    private void ensure(int more) throws IOException {
+        if (pos + more <= buf.length) {
+            return;
+        }
+        if (out != null) {
+            flush();
+            if (more <= buf.length) {
+                return;
+            }
+        }
+        buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + more));
+    }
+
+    private void write(int b) throws IOException {
+        if (pos == buf.length) {
+            ensure(1);
+        }
+        buf[pos++] = (byte) b;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    //
+    //  Values
+    //
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            write(NULL);
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof BaseData) {
+            writeData((BaseData) value);
+        } else if (value instanceof Boolean) {
+            write((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Number) {
+            writeNumber((Number) value);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value);
+        } else if (value instanceof Mapper) {
+            writeMap(((Mapper) value).toMap());
+        } else if (value instanceof Collection) {
+            writeArray((Collection<?>) value);
+        } else if (value.getClass().isArray()) {
+            int count = Array.getLength(value);
+            write('[');
+            for (int i = 0; i < count; ++i) {
+                if (i > 0) {
+                    write(',');
+                }
+                writeValue(Array.get(value, i));
+            }
+            write(']');
+        } else {
+            // Stringer (ID, TransportableData, ...)
+            writeString(value.toString());
+        }
+    }
+
+    private void writeMap(Map<?, ?> map) throws IOException {
+        write('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (first) {
+                first = false;
+            } else {
+                write(',');
+            }
+            writeString(String.valueOf(entry.getKey()));
+            write(':');
+            writeValue(entry.getValue());
+        }
+        write('}');
+    }
+
+    private void writeArray(Collection<?> array) throws IOException {
+        write('[');
+        boolean first = true;
+        for (Object item : array) {
+            if (first) {
+                first = false;
+            } else {
+                write(',');
+            }
+            writeValue(item);
+        }
+        write(']');
+    }
+
+    private void writeNumber(Number number) throws IOException {
+        if (number instanceof Double || number instanceof Float) {
+            double value = number.doubleValue();
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                write(NULL);
+                return;
+            }
+        }
+        String text = number.toString();
+        int len = text.length();
+        ensure(len);
+        for (int i = 0; i < len; ++i) {
+            buf[pos++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void writeData(BaseData data) throws IOException {
+        String text = data.cachedString();
+        if (text != null) {
+            writeString(text);
+            return;
+        }
+        byte[] bytes = data.cachedBinary();
+        if (bytes != null && data instanceof Base64Data && Base64Data.isBuiltinCoder()) {
+            // encode into buffer directly, piece by piece,
+            // so the buffer will be flushed between them when streaming
+            write('"');
+            int size;
+            for (int off = 0; off < bytes.length; off += size) {
+                size = Math.min(DATA_CHUNK, bytes.length - off);
+                ensure(Base64Codec.encodedLength(size));
+                pos += Base64Codec.encode(bytes, off, size, buf, pos);
+            }
+            write('"');
+            return;
+        }
+        // let data encode itself (e.g.: data URI)
+        write('"');
+        Escaper escaper = new Escaper();
+        data.writeTo(escaper);
+        escaper.flushHigh();
+        write('"');
+    }
+
+    private void writeString(CharSequence text) throws IOException {
+        write('"');
+        writeChars(text, 0, text.length());
+        write('"');
+    }
+
+    private void writeChars(CharSequence text, int start, int end) throws IOException {
+        char ch;
+        for (int i = start; i < end; ++i) {
+            ch = text.charAt(i);
+            if (ch < 0x80) {
+                writeASCII(ch);
+            } else if (Character.isHighSurrogate(ch) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                writeCodePoint(Character.toCodePoint(ch, text.charAt(++i)));
+            } else {
+                writeChar(ch);
+            }
+        }
+    }
+
+    private void writeASCII(char ch) throws IOException {
+        if (ch >= 0x20 && ch != '"' && ch != '\\') {
+            // fast path
+            if (pos == buf.length) {
+                ensure(1);
+            }
+            buf[pos++] = (byte) ch;
+        } else {
+            writeEscaped(ch);
+        }
+    }
+
+    // single char in BMP (not a surrogate pair)
+    private void writeChar(char ch) throws IOException {
+        if (ch < 0x80) {
+            writeASCII(ch);
+            return;
+        }
+        ensure(3);
+        if (ch < 0x800) {
+            buf[pos++] = (byte) (0xC0 | (ch >> 6));
+            buf[pos++] = (byte) (0x80 | (ch & 0x3F));
+        } else if (Character.isSurrogate(ch)) {
+            // broken surrogate pair
+            buf[pos++] = '?';
+        } else {
+            buf[pos++] = (byte) (0xE0 | (ch >> 12));
+            buf[pos++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+            buf[pos++] = (byte) (0x80 | (ch & 0x3F));
+        }
+    }
+
+    private void writeCodePoint(int cp) throws IOException {
+        ensure(4);
+        buf[pos++] = (byte) (0xF0 | (cp >> 18));
+        buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+        buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+    }
+
+    private void writeEscaped(char ch) throws IOException {
+        ensure(6);
+        buf[pos++] = '\\';
+        switch (ch) {
+            case '"':  buf[pos++] = '"';  break;
+            case '\\': buf[pos++] = '\\'; break;
+            case '\n': buf[pos++] = 'n';  break;
+            case '\r': buf[pos++] = 'r';  break;
+            case '\t': buf[pos++] = 't';  break;
+            case '\b': buf[pos++] = 'b';  break;
+            case '\f': buf[pos++] = 'f';  break;
+            default:
+                buf[pos++] = 'u';
+                buf[pos++] = '0';
+                buf[pos++] = '0';
+                buf[pos++] = HEX[(ch >> 4) & 0x0F];
+                buf[pos++] = HEX[ch & 0x0F];
+                break;
+        }
+    }
+
+    /**
+     *  Text sink for BaseData.writeTo(), escapes chars into the buffer
+     */
+    private final class Escaper implements Appendable {
+
+        // high surrogate waiting for the low one from next append(char)
+        private char high = 0;
+
+        private void flushHigh() throws IOException {
+            if (high != 0) {
+                writeChar(high);
+                high = 0;
+            }
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            flushHigh();
+            writeChars(csq, 0, csq.length());
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            flushHigh();
+            writeChars(csq, start, end);
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            if (high != 0 && Character.isLowSurrogate(c)) {
+                writeCodePoint(Character.toCodePoint(high, c));
+                high = 0;
+            } else if (Character.isHighSurrogate(c)) {
+                flushHigh();
+                high = c;
+            } else {
+                flushHigh();
+                writeChar(c);
+            }
+            return this;
+        }
+    }
+
+}
@@ -0,0 +1,256 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ *  Lazy JSON Map
+ *  <p>
+ *      Only offsets of the top-level fields are indexed from the raw JSON,
+ *      values will be decoded on first access; so a station can route a
+ *      message by 'sender', 'receiver', 'group' and 'type' without ever
+ *      decoding the large 'data', 'keys' and 'signature' strings.
+ *  </p>
+ *  <p>
+ *      Not thread-safe, same as HashMap.
+ *  </p>
+ */
+public class LazyJSONMap extends AbstractMap<String, Object> {
+
+    private final byte[] json;
+    private final int start;
+    private final int end;
+
+    // key => value, or RawValue not decoded yet (in original order)
+    private final Map<String, Object> entries;
+
+    // count of values not decoded yet
+    private int pending;
+
+    private boolean modified;
+
+    protected LazyJSONMap(byte[] json, int start, int end, Map<String, Object> entries, int pending) {
+        super();
+        this.json = json;
+        this.start = start;
+        this.end = end;
+        this.entries = entries;
+        this.pending = pending;
+        this.modified = false;
+    }
+
+    // value range in raw JSON
+    private static final class RawValue {
+        final int start;
+        final int end;
+        RawValue(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private Object decode(String key, Object value) {
+        if (value instanceof RawValue) {
+            RawValue raw = (RawValue) value;
+            value = new JSONScanner(json, raw.start, raw.end).readValue();
+            // replacing value keeps the order
+            entries.put(key, value);
+            --pending;
+        }
+        return value;
+    }
+
+    private void decodeAll() {
+        if (pending > 0) {
+            for (Map.Entry<String, Object> entry : entries.entrySet()) {
+                Object value = entry.getValue();
+                if (value instanceof RawValue) {
+                    RawValue raw = (RawValue) value;
+                    entry.setValue(new JSONScanner(json, raw.start, raw.end).readValue());
+                }
+            }
+            pending = 0;
+        }
+    }
+
+    /**
+     *  Check whether the value of this key is decoded
+     */
+    public boolean isDecoded(String key) {
+        return !(entries.get(key) instanceof RawValue);
+    }
+
+    /**
+     *  Check whether any top-level field changed
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     *  Get the original JSON, e.g.: to forward the message untouched
+     *
+     * @return read-only view of raw JSON
+     */
+    public ByteBuffer getRawJSON() {
+        return ByteBuffer.wrap(json, start, end - start).slice().asReadOnlyBuffer();
+    }
+
+    //
+    //  Map
+    //
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object value = entries.get(key);
+        if (value instanceof RawValue) {
+            value = decode((String) key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        modified = true;
+        Object old = entries.put(key, value);
+        if (old instanceof RawValue) {
+            --pending;
+            old = new JSONScanner(json, ((RawValue) old).start, ((RawValue) old).end).readValue();
+        }
+        return old;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!entries.containsKey(key)) {
+            return null;
+        }
+        modified = true;
+        Object old = entries.remove(key);
+        if (old instanceof RawValue) {
+            --pending;
+            old = new JSONScanner(json, ((RawValue) old).start, ((RawValue) old).end).readValue();
+        }
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        modified = true;
+        entries.clear();
+        pending = 0;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        // keys only, values not decoded
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        // iterating needs all values;
+        // read-only, changes must go through put/remove to mark modified
+        decodeAll();
+        return Collections.unmodifiableMap(entries).entrySet();
+    }
+
+    //
+    //  Factory
+    //
+
+    public static LazyJSONMap parse(byte[] json) {
+        return index(json, 0, json.length);
+    }
+
+    public static LazyJSONMap parse(String json) {
+        return parse(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     *  Index top-level fields of JSON object in range
+     *
+     * @param json  - UTF-8 encoded JSON
+     * @param start - start position
+     * @param end   - end position (exclusive)
+     * @return null on format error
+     */
+    public static LazyJSONMap index(byte[] json, int start, int end) {
+        JSONScanner scanner = new JSONScanner(json, start, end);
+        if (!scanner.accept('{')) {
+            return null;
+        }
+        Map<String, Object> entries = new LinkedHashMap<>();
+        int pending = 0;
+        if (!scanner.accept('}')) {
+            String key;
+            int pos;
+            do {
+                key = scanner.readString();
+                if (key == null || !scanner.accept(':') || !scanner.hasMore()) {
+                    return null;
+                }
+                pos = scanner.getPosition();
+                if (!scanner.skipValue()) {
+                    return null;
+                }
+                if (entries.put(key, new RawValue(pos, scanner.getPosition())) instanceof RawValue) {
+                    // duplicated key, the last one wins
+                    --pending;
+                }
+                ++pending;
+            } while (scanner.accept(','));
+            if (!scanner.accept('}')) {
+                return null;
+            }
+        }
+        int stop = scanner.getPosition();
+        if (scanner.hasMore()) {
+            // trailing garbage
+            return null;
+        }
+        return new LazyJSONMap(json, start, stop, entries, pending);
+    }
+
+}
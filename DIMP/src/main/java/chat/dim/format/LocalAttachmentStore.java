@@ -0,0 +1,116 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ *  Local Attachment Store
+ *  <p>
+ *      Files are named by SHA-256 of the content, so identical data
+ *      (avatars, stickers, ...) will be saved only once:
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *      {root}/{digest[0:2]}/{digest[2:]}
+ *  </pre></blockquote>
+ */
+public class LocalAttachmentStore implements AttachmentStore {
+
+    private final Path root;
+
+    public LocalAttachmentStore(Path root) {
+        super();
+        this.root = root;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    protected Path getPath(String ref) {
+        return root.resolve(ref.substring(0, 2)).resolve(ref.substring(2));
+    }
+
+    protected String digest(byte[] data) {
+        return DigestHelper.sha256(data);
+    }
+
+    @Override
+    public String save(byte[] data) {
+        String ref = digest(data);
+        Path path = getPath(ref);
+        if (Files.isRegularFile(path)) {
+            // same content saved before
+            return ref;
+        }
+        Path tmp = null;
+        try {
+            Path dir = path.getParent();
+            Files.createDirectories(dir);
+            // write to a temporary file first,
+            // then move it to the target path
+            tmp = Files.createTempFile(dir, ref.substring(2, 10), ".tmp");
+            Files.write(tmp, data);
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+            return ref;
+        } catch (IOException e) {
+            // failed to save
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // nothing to do
+                }
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public ByteBuffer load(String ref) {
+        if (ref == null || ref.length() < 3) {
+            assert false : "attachment ref error: " + ref;
+            return null;
+        }
+        Path path = getPath(ref);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            // not found
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+
+/**
+ *  Chunks in local directory: "{dir}/{digest}"
+ */
+public class LocalChunkSource implements ChunkSource {
+
+    private final Path directory;
+
+    public LocalChunkSource(Path dir) {
+        super();
+        directory = dir;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public byte[] read(String digest) {
+        // the digest comes from message, check it before resolving the path
+        if (!DigestHelper.isDigest(digest)) {
+            assert false : "chunk digest error: " + digest;
+            return null;
+        }
+        try {
+            return Files.readAllBytes(directory.resolve(digest));
+        } catch (IOException e) {
+            // not found
+            return null;
+        }
+    }
+
+    /**
+     *  Save encrypted chunk
+     *
+     * @param chunk - encrypted chunk
+     * @return digest of chunk in hex
+     */
+    public String save(byte[] chunk) throws IOException {
+        String digest = DigestHelper.sha256(chunk);
+        Path path = directory.resolve(digest);
+        if (!Files.isRegularFile(path)) {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, digest.substring(0, 8), ".tmp");
+            Files.write(tmp, chunk);
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return digest;
+    }
+
+}
@@ -0,0 +1,218 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+
+/**
+ *  Percent Codec
+ *  <p>
+ *      URL escaped encoding (RFC 2396) for the body of data URI:
+ *      unreserved and reserved characters stay as they are,
+ *      other bytes are escaped as "%XX".
+ *  </p>
+ */
+public final class PercentCodec {
+    private PercentCodec() {
+        throw new AssertionError("Utility class cannot be instantiated");
+    }
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    // characters need not escape
+    private static final boolean[] SAFE = new boolean[128];
+
+    private static final int[] DIGITS = new int[128];
+
+    static {
+        for (char ch = 'a'; ch <= 'z'; ++ch) {
+            SAFE[ch] = true;
+        }
+        for (char ch = 'A'; ch <= 'Z'; ++ch) {
+            SAFE[ch] = true;
+        }
+        for (char ch = '0'; ch <= '9'; ++ch) {
+            SAFE[ch] = true;
+        }
+        // unreserved marks
+        for (char ch : "-_.!~*'()".toCharArray()) {
+            SAFE[ch] = true;
+        }
+        // reserved
+        for (char ch : ";/?:@&=+$,".toCharArray()) {
+            SAFE[ch] = true;
+        }
+        Arrays.fill(DIGITS, -1);
+        for (int i = 0; i < 16; ++i) {
+            DIGITS[HEX[i]] = i;
+            DIGITS[Character.toLowerCase(HEX[i])] = i;
+        }
+    }
+
+    /**
+     *  Get length of encoded string
+     *
+     * @param src - source data
+     * @param off - start position of source data
+     * @param len - length of source data
+     * @return count of characters
+     */
+    public static int encodedLength(byte[] src, int off, int len) {
+        int count = 0;
+        int b;
+        for (int i = off; i < off + len; ++i) {
+            b = src[i];
+            count += (b >= 0 && SAFE[b]) ? 1 : 3;
+        }
+        return count;
+    }
+
+    public static String encode(byte[] data) {
+        char[] chars = new char[encodedLength(data, 0, data.length)];
+        int count = encode(data, 0, data.length, chars, 0);
+        assert count == chars.length : "percent encoding error: " + count + ", " + chars.length;
+        return new String(chars);
+    }
+
+    /**
+     *  Encode bytes into characters
+     *
+     * @param src - source data
+     * @param off - start position of source data
+     * @param len - length of source data
+     * @param dst - buffer for encoded characters
+     * @param pos - start position of buffer
+     * @return count of characters written
+     */
+    public static int encode(byte[] src, int off, int len, char[] dst, int pos) {
+        int p = pos;
+        int b;
+        for (int i = off; i < off + len; ++i) {
+            b = src[i];
+            if (b >= 0 && SAFE[b]) {
+                dst[p++] = (char) b;
+            } else {
+                dst[p++] = '%';
+                dst[p++] = HEX[(b >>> 4) & 0x0F];
+                dst[p++] = HEX[b & 0x0F];
+            }
+        }
+        return p - pos;
+    }
+
+    /**
+     *  Encode bytes into a text sink chunk by chunk
+     *
+     * @param src - source data
+     * @param off - start position of source data
+     * @param len - length of source data
+     * @param out - text sink
+     */
+    public static void encode(byte[] src, int off, int len, Appendable out) throws IOException {
+        char[] buffer = new char[3 * Math.min(len, 4096)];
+        final int end = off + len;
+        int size;
+        int count;
+        for (int i = off; i < end; i += size) {
+            size = Math.min(4096, end - i);
+            count = encode(src, i, size, buffer, 0);
+            out.append(CharBuffer.wrap(buffer, 0, count));
+        }
+    }
+
+    public static byte[] decode(CharSequence src) {
+        return decode(src, 0, src.length());
+    }
+
+    /**
+     *  Decode characters in range;
+     *  non-ASCII characters (not escaped) are taken as UTF-8
+     *
+     * @param src   - encoded string
+     * @param start - start position
+     * @param end   - end position (exclusive)
+     * @return decoded data; null on error
+     */
+    public static byte[] decode(CharSequence src, int start, int end) {
+        // 1. count bytes
+        int count = 0;
+        char ch;
+        for (int i = start; i < end; ++i) {
+            ch = src.charAt(i);
+            if (ch == '%') {
+                if (i + 2 >= end || digit(src.charAt(i + 1)) < 0 || digit(src.charAt(i + 2)) < 0) {
+                    return null;
+                }
+                i += 2;
+                ++count;
+            } else if (ch < 0x80) {
+                ++count;
+            } else if (ch < 0x800) {
+                count += 2;
+            } else if (Character.isHighSurrogate(ch) && i + 1 < end && Character.isLowSurrogate(src.charAt(i + 1))) {
+                ++i;
+                count += 4;
+            } else {
+                count += 3;
+            }
+        }
+        // 2. decode
+        byte[] data = new byte[count];
+        int p = 0;
+        int cp;
+        for (int i = start; i < end; ++i) {
+            ch = src.charAt(i);
+            if (ch == '%') {
+                data[p++] = (byte) (digit(src.charAt(i + 1)) << 4 | digit(src.charAt(i + 2)));
+                i += 2;
+            } else if (ch < 0x80) {
+                data[p++] = (byte) ch;
+            } else if (ch < 0x800) {
+                data[p++] = (byte) (0xC0 | (ch >> 6));
+                data[p++] = (byte) (0x80 | (ch & 0x3F));
+            } else if (Character.isHighSurrogate(ch) && i + 1 < end && Character.isLowSurrogate(src.charAt(i + 1))) {
+                cp = Character.toCodePoint(ch, src.charAt(++i));
+                data[p++] = (byte) (0xF0 | (cp >> 18));
+                data[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                data[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                data[p++] = (byte) (0x80 | (cp & 0x3F));
+            } else {
+                data[p++] = (byte) (0xE0 | (ch >> 12));
+                data[p++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+                data[p++] = (byte) (0x80 | (ch & 0x3F));
+            }
+        }
+        return data;
+    }
+
+    private static int digit(char ch) {
+        return ch < 128 ? DIGITS[ch] : -1;
+    }
+
+}
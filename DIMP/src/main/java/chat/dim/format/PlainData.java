@@ -52,24 +52,46 @@ public class PlainData extends BaseData {
 
     @Override
     public byte[] getBytes() {
-        byte[] bytes = binary;
+        byte[] bytes = cachedBinary();
         if (bytes == null) {
-            assert string != null : "base64 data error";
-            bytes = UTF8.encode(string);
-            binary = bytes;
+            String text = cachedString();
+            assert text != null : "plain data error";
+            bytes = UTF8.encode(text);
+            retainBinary(bytes);
         }
         return bytes;
     }
 
     @Override
     public String toString() {
-        String base64 = string;
-        if (base64 == null) {
-            assert binary != null : "base64 data error";
-            base64 = UTF8.decode(binary);
-            string = base64;
+        String text = cachedString();
+        if (text == null) {
+            byte[] bytes = cachedBinary();
+            assert bytes != null : "plain data error";
+            text = UTF8.decode(bytes);
+            retainString(text);
         }
-        return base64;
+        return text;
+    }
+
+    @Override
+    protected boolean isCanonical(String encoded) {
+        // UTF-8, lone surrogates will not survive the round trip
+        final int len = encoded.length();
+        char ch;
+        for (int i = 0; i < len; ++i) {
+            ch = encoded.charAt(i);
+            if (Character.isHighSurrogate(ch)) {
+                if (i + 1 < len && Character.isLowSurrogate(encoded.charAt(i + 1))) {
+                    ++i;
+                } else {
+                    return false;
+                }
+            } else if (Character.isLowSurrogate(ch)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     //
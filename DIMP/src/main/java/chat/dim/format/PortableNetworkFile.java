@@ -30,6 +30,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
+import chat.dim.data.Converter;
 import chat.dim.protocol.DecryptKey;
 import chat.dim.protocol.TransportableData;
 import chat.dim.protocol.TransportableFile;
@@ -44,6 +45,11 @@ public class PortableNetworkFile extends Dictionary implements TransportableFile
 
     private final TransportableFileWrapper wrapper;
 
+    // cached result of getURIString(), reset by setters & put/remove;
+    // a data URI is never cached, so spilled data won't be held here
+    private String uriString;
+    private boolean uriResolved;
+
     public PortableNetworkFile(Map<String, Object> content) {
         super(content);
         TransportableFileWrapper.Factory factory = SharedNetworkFormatAccess.pnfWrapperFactory;
@@ -56,9 +62,52 @@ public class PortableNetworkFile extends Dictionary implements TransportableFile
         wrapper = factory.createTransportableFileWrapper(super.toMap(), data, filename, url, password);
     }
 
+    private String getCachedURIString() {
+        if (uriResolved) {
+            return uriString;
+        }
+        String uri = getURIString();
+        if (uri == null || getURL() != null) {
+            // cache 'not a URI' or the remote URL only
+            uriString = uri;
+            uriResolved = true;
+        }
+        return uri;
+    }
+
+    // reset cached URI string
+    protected void invalidate() {
+        uriString = null;
+        uriResolved = false;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        invalidate();
+        return super.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        invalidate();
+        return super.remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> map) {
+        invalidate();
+        super.putAll(map);
+    }
+
+    @Override
+    public void clear() {
+        invalidate();
+        super.clear();
+    }
+
     protected String getURIString() {
         // serialize
-        Map<String, Object> map = wrapper.toMap();
+        Map<String, Object> map = wrapper.serializeMap();
         // check 'URL'
         URI url = getURL();
         if (url != null) {
@@ -76,7 +125,7 @@ public class PortableNetworkFile extends Dictionary implements TransportableFile
             return null;
         }
         // check 'data'
-        String text = getString("data");
+        String text = Converter.getString(map.get("data"));
         DataURI uri = DataURI.parse(text);
         if (uri != null) {
             int count = map.size();
@@ -127,18 +176,18 @@ public class PortableNetworkFile extends Dictionary implements TransportableFile
         }
         // create data URI with new extra info
         head = new DataURI.Header(head.mimeType, head.encoding, extra);
-        return new DataURI(head, uri.body);
+        return new DataURI(head, uri.getBody());
     }
 
     @Override
     public String toString() {
-        String uri = getURIString();
+        String uri = getCachedURIString();
         if (uri != null) {
             // this PNF can be simplified to a URI string
             return uri;
         }
         // return JSON string
-        return JSONMap.encode(wrapper.toMap());
+        return JSONMap.encode(wrapper.serializeMap());
     }
 
     @Override
@@ -149,13 +198,13 @@ public class PortableNetworkFile extends Dictionary implements TransportableFile
 
     @Override
     public Object serialize() {
-        String uri = getURIString();
+        String uri = getCachedURIString();
         if (uri != null) {
             // this PNF can be simplified to a URI string
             return uri;
         }
-        // return inner map
-        return wrapper.toMap();
+        // return inner map (or a copy with spilled data loaded)
+        return wrapper.serializeMap();
     }
 
     /**
@@ -170,6 +219,7 @@ public class PortableNetworkFile extends Dictionary implements TransportableFile
     @Override
     public void setData(TransportableData data) {
         wrapper.setData(data);
+        invalidate();
     }
 
     /**
@@ -184,6 +234,7 @@ public class PortableNetworkFile extends Dictionary implements TransportableFile
     @Override
     public void setFilename(String name) {
         wrapper.setFilename(name);
+        invalidate();
     }
 
     /**
@@ -198,6 +249,23 @@ public class PortableNetworkFile extends Dictionary implements TransportableFile
     @Override
     public void setURL(URI url) {
         wrapper.setURL(url);
+        invalidate();
+    }
+
+    /**
+     *  chunked file info (for large file encrypted in chunks)
+     */
+
+    public ChunkedFile getChunks() {
+        return ChunkedFile.parse(get("chunks"));
+    }
+
+    public void setChunks(ChunkedFile chunks) {
+        if (chunks == null) {
+            remove("chunks");
+        } else {
+            put("chunks", chunks.toMap());
+        }
     }
 
     /**
@@ -212,6 +280,7 @@ public class PortableNetworkFile extends Dictionary implements TransportableFile
     @Override
     public void setPassword(DecryptKey key) {
         wrapper.setPassword(key);
+        invalidate();
     }
 
 }
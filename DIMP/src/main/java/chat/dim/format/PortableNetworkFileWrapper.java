@@ -26,12 +26,15 @@
 package chat.dim.format;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
 import java.util.Map;
 
 import chat.dim.data.Converter;
 import chat.dim.protocol.DecryptKey;
 import chat.dim.protocol.SymmetricKey;
 import chat.dim.protocol.TransportableData;
+import chat.dim.rfc.DataURI;
 import chat.dim.type.Mapper;
 
 
@@ -53,6 +56,13 @@ import chat.dim.type.Mapper;
  *      }
  *  }
  *  </pre></blockquote>
+ *
+ *  <p>
+ *      If an attachment store is set in SharedNetworkFormatAccess,
+ *      file data larger than the threshold will be spilled to it on setData();
+ *      only this wrapper keeps the reference (the inner map has no 'data' then),
+ *      and the data will be loaded again on getData() / serializeMap().
+ *  </p>
  */
 class PortableNetworkFileWrapper implements TransportableFileWrapper {
 
@@ -61,6 +71,12 @@ class PortableNetworkFileWrapper implements TransportableFileWrapper {
     // file content (not encrypted)
     private TransportableData attachment;
 
+    // reference of file content spilled to the attachment store,
+    // with encoding template to rebuild it
+    private String attachmentRef;
+    private String attachmentEncoding;
+    private DataURI.Header attachmentHeader;
+
     // download from CDN
     private URI remoteURL;
     // key to decrypt data downloaded from CDN
@@ -74,6 +90,9 @@ class PortableNetworkFileWrapper implements TransportableFileWrapper {
         dictionary = map;
         // lazy load
         attachment = null;
+        attachmentRef = null;
+        attachmentEncoding = null;
+        attachmentHeader = null;
         remoteURL = null;
         password = null;
     }
@@ -114,10 +133,29 @@ class PortableNetworkFileWrapper implements TransportableFileWrapper {
         return dictionary;
     }
 
+    @Override
+    public Map<String, Object> serializeMap() {
+        Map<String, Object> info = toMap();
+        String ref = attachmentRef;
+        if (ref == null) {
+            return info;
+        }
+        // file data spilled, return a copy with 'data' filled in
+        info = new HashMap<>(info);
+        info.put("data", serializeAttachment(loadBuffer(ref)));
+        return info;
+    }
+
     @Override
     public TransportableData getData() {
         TransportableData ted = attachment;
         if (ted == null) {
+            String ref = attachmentRef;
+            if (ref != null) {
+                // re-materialize from the store, not kept here
+                return loadAttachment(loadBuffer(ref));
+            }
+            // read only, the shared dictionary is not changed here
             Object base64 = get("data");
             ted = TransportableData.parse(base64);
             attachment = ted;
@@ -133,9 +171,107 @@ class PortableNetworkFileWrapper implements TransportableFileWrapper {
             put("data", ted.serialize());
         }
         /*/
+        attachmentRef = null;
+        if (ted != null && spillAttachment(ted)) {
+            // only the reference is kept
+            ted = null;
+        }
         attachment = ted;
     }
 
+    /**
+     *  Save file data to the attachment store if it's too big
+     *
+     * @param ted - file data
+     * @return false on not spilled
+     */
+    protected boolean spillAttachment(TransportableData ted) {
+        AttachmentStore store = SharedNetworkFormatAccess.attachmentStore;
+        if (store == null) {
+            return false;
+        }
+        // check encoding template, the data must be rebuilt with it
+        DataURI.Header head = null;
+        String encoding = ted.getEncoding();
+        if (ted instanceof EmbedData) {
+            head = ((EmbedData) ted).getDataHeader();
+        } else if (!(ted instanceof Base64Data || ted instanceof Base58Data || ted instanceof HexData)) {
+            return false;
+        }
+        byte[] bytes = ted.getBytes();
+        if (bytes == null || bytes.length <= SharedNetworkFormatAccess.attachmentThreshold) {
+            return false;
+        }
+        String ref = store.save(bytes);
+        if (ref == null) {
+            // keep it in memory
+            return false;
+        }
+        attachmentRef = ref;
+        attachmentEncoding = encoding;
+        attachmentHeader = head;
+        return true;
+    }
+
+    /**
+     *  Load file data from the attachment store
+     *
+     * @param ref - reference of spilled data
+     * @return memory-mapped file data
+     * @throws IllegalStateException if the data was lost
+     */
+    protected ByteBuffer loadBuffer(String ref) {
+        AttachmentStore store = SharedNetworkFormatAccess.attachmentStore;
+        ByteBuffer buffer = store == null ? null : store.load(ref);
+        if (buffer == null) {
+            throw new IllegalStateException("failed to load attachment: " + ref);
+        }
+        return buffer;
+    }
+
+    /**
+     *  Rebuild file data with the encoding template
+     *
+     * @param buffer - spilled data
+     * @return file data
+     */
+    protected TransportableData loadAttachment(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        DataURI.Header head = attachmentHeader;
+        if (head != null) {
+            return new EmbedData(bytes, head);
+        }
+        String encoding = attachmentEncoding;
+        if (BaseData.BASE_58.equals(encoding)) {
+            return new Base58Data(bytes);
+        } else if (BaseData.HEX.equals(encoding)) {
+            return new HexData(bytes);
+        } else {
+            return new Base64Data(bytes);
+        }
+    }
+
+    /**
+     *  Encode spilled data for serialization;
+     *  base64 is encoded from the mapped buffer directly, without copying it to the heap
+     *
+     * @param buffer - spilled data
+     * @return encoded string
+     */
+    protected Object serializeAttachment(ByteBuffer buffer) {
+        DataURI.Header head = attachmentHeader;
+        String encoding = head == null ? attachmentEncoding : head.encoding;
+        if (BaseData.BASE_64.equals(encoding) && Base64Data.isBuiltinCoder()) {
+            String prefix = head == null ? "" : "data:" + head + ",";
+            char[] chars = new char[prefix.length() + Base64Codec.encodedLength(buffer.remaining())];
+            prefix.getChars(0, prefix.length(), chars, 0);
+            Base64Codec.encode(buffer, chars, prefix.length());
+            return new String(chars);
+        }
+        return loadAttachment(buffer).serialize();
+    }
+
     @Override
     public String getFilename() {
         return getString("filename");
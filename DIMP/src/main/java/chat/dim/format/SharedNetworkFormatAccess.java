@@ -37,6 +37,12 @@ public final class SharedNetworkFormatAccess {
         throw new AssertionError("Utility class cannot be instantiated");
     }
 
+    // spill large file data in PNF to this store (disabled when null)
+    public static AttachmentStore attachmentStore = null;
+
+    // file data larger than this (in bytes) will be spilled
+    public static int attachmentThreshold = 64 * 1024;
+
     // wrapper for PNF
     public static TransportableFileWrapper.Factory pnfWrapperFactory = new TransportableFileWrapper.Factory() {
 
@@ -40,6 +40,16 @@ public interface TransportableFileWrapper {
     // serialize data
     Map<String, Object> toMap();
 
+    /**
+     *  Get info for serialization;
+     *  if the file data was spilled, a copy with 'data' loaded is returned
+     *
+     * @return serializable info
+     */
+    default Map<String, Object> serializeMap() {
+        return toMap();
+    }
+
     /**
      *  file data
      */
@@ -33,6 +33,7 @@ package chat.dim.msg;
 import java.util.Date;
 import java.util.Map;
 
+import chat.dim.ext.SharedClock;
 import chat.dim.protocol.Envelope;
 import chat.dim.protocol.ID;
 import chat.dim.protocol.Message;
@@ -84,15 +85,20 @@ public abstract class BaseMessage extends Dictionary implements Message {
 
     private Envelope envelope;
 
+    // broadcast flag: null for not checked yet
+    private Boolean broadcast;
+
     protected BaseMessage(Map<String, Object> msg) {
         super(msg);
         // lazy load
         envelope = null;
+        broadcast = null;
     }
 
     protected BaseMessage(Envelope env) {
         super(env.toMap());
         envelope = env;
+        broadcast = null;
     }
 
     @Override
@@ -137,6 +143,19 @@ public abstract class BaseMessage extends Dictionary implements Message {
         return head.getTime();
     }
 
+    /**
+     *  Get message time without creating Date
+     *
+     * @return seconds from 1970-01-01; 0 if not found
+     */
+    public double getTimestamp() {
+        Envelope head = getEnvelope();
+        if (head instanceof MessageEnvelope) {
+            return ((MessageEnvelope) head).getTimestamp();
+        }
+        return SharedClock.parseTimestamp(get("time"));
+    }
+
     @Override
     public ID getGroup() {
         Envelope head = getEnvelope();
@@ -159,7 +178,27 @@ public abstract class BaseMessage extends Dictionary implements Message {
 
     //--------
 
+    /**
+     *  Check whether the receiver or the exposed group is broadcast ID;
+     *  the result is cached in this message
+     */
+    public boolean isBroadcast() {
+        Boolean flag = broadcast;
+        if (flag == null) {
+            flag = checkBroadcast(this);
+            broadcast = flag;
+        }
+        return flag;
+    }
+
     public static boolean isBroadcast(Message msg) {
+        if (msg instanceof BaseMessage) {
+            return ((BaseMessage) msg).isBroadcast();
+        }
+        return checkBroadcast(msg);
+    }
+
+    private static boolean checkBroadcast(Message msg) {
         if (msg.getReceiver().isBroadcast()) {
             return true;
         }
@@ -0,0 +1,487 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import chat.dim.format.Base64Codec;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.SecureMessage;
+import chat.dim.type.Mapper;
+import chat.dim.type.Stringer;
+
+/**
+ *  Binary Codec for Secure/Reliable Message
+ *
+ *  <blockquote><pre>
+ *  format:
+ *      magic   : 0xDB
+ *      version : 0x01
+ *      body    : map value
+ *
+ *  value = type(1 byte) + payload:
+ *      0x00 null
+ *      0x01 false
+ *      0x02 true
+ *      0x03 integer   : zigzag varint
+ *      0x04 double    : 8 bytes, big-endian
+ *      0x05 string    : varint length + UTF-8
+ *      0x06 binary    : varint length + raw bytes (canonical base64 string)
+ *      0x07 list      : varint count + values
+ *      0x08 map       : varint count + (key + value)...
+ *
+ *  key = varint tag:
+ *      0     : varint length + UTF-8 (other names)
+ *      1 ... : index of known field name + 1
+ *  </pre></blockquote>
+ *
+ *  <p>
+ *      Values of 'data', 'signature' and 'keys' are stored as raw bytes
+ *      when they are canonical base64, so they are restored to the same
+ *      strings; the decoded map is identical to the original one,
+ *      and can be used for signing and JSON compatibility.
+ *  </p>
+ */
+public final class BinaryMessageCodec {
+    private BinaryMessageCodec() {
+        throw new AssertionError("Utility class cannot be instantiated");
+    }
+
+    public static final int MAGIC   = 0xDB;
+    public static final int VERSION = 0x01;
+
+    // max nesting level of lists/maps
+    public static final int MAX_DEPTH = 64;
+
+    private static final int NULL    = 0x00;
+    private static final int FALSE   = 0x01;
+    private static final int TRUE    = 0x02;
+    private static final int INTEGER = 0x03;
+    private static final int DOUBLE  = 0x04;
+    private static final int STRING  = 0x05;
+    private static final int BINARY  = 0x06;
+    private static final int LIST    = 0x07;
+    private static final int MAP     = 0x08;
+
+    // known field names, DO NOT change the order
+    private static final String[] KEYS = {
+            "sender", "receiver", "time", "group", "type",
+            "data", "keys", "signature", "digest",
+            "meta", "visa", "traces", "sn",
+    };
+
+    private static final Map<String, Integer> TAGS = new HashMap<>();
+
+    static {
+        for (int index = 0; index < KEYS.length; ++index) {
+            TAGS.put(KEYS[index], index + 1);
+        }
+    }
+
+    //
+    //  Encode
+    //
+
+    public static byte[] encode(Mapper msg) {
+        return encode(msg.toMap());
+    }
+
+    /**
+     *  Encode message map
+     *
+     * @param msg - secure/reliable message info
+     * @return binary message
+     */
+    public static byte[] encode(Map<String, Object> msg) {
+        Output out = new Output(256);
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeMap(out, msg, true);
+        return out.toByteArray();
+    }
+
+    private static void writeMap(Output out, Map<?, ?> map, boolean topLevel) {
+        out.write(MAP);
+        out.writeVarint(map.size());
+        String key;
+        Object value;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            key = String.valueOf(entry.getKey());
+            value = entry.getValue();
+            writeKey(out, key);
+            if (topLevel && ("data".equals(key) || "signature".equals(key))) {
+                writeBinaryOrValue(out, value);
+            } else if (topLevel && "keys".equals(key) && value instanceof Map) {
+                // encrypted keys: {ID: base64, "digest": base64}
+                Map<?, ?> keys = (Map<?, ?>) value;
+                out.write(MAP);
+                out.writeVarint(keys.size());
+                for (Map.Entry<?, ?> item : keys.entrySet()) {
+                    writeKey(out, String.valueOf(item.getKey()));
+                    writeBinaryOrValue(out, item.getValue());
+                }
+            } else {
+                writeValue(out, value);
+            }
+        }
+    }
+
+    private static void writeKey(Output out, String key) {
+        Integer tag = TAGS.get(key);
+        if (tag != null) {
+            out.writeVarint(tag);
+        } else {
+            out.writeVarint(0);
+            out.writeUTF8(key);
+        }
+    }
+
+    private static void writeBinaryOrValue(Output out, Object value) {
+        if (value instanceof Stringer) {
+            value = value.toString();
+        }
+        if (value instanceof String && Base64Codec.isCanonical((String) value)) {
+            byte[] bytes = Base64Codec.decode((String) value);
+            if (bytes != null) {
+                out.write(BINARY);
+                out.writeVarint(bytes.length);
+                out.write(bytes, 0, bytes.length);
+                return;
+            }
+        }
+        writeValue(out, value);
+    }
+
+    private static void writeValue(Output out, Object value) {
+        if (value == null) {
+            out.write(NULL);
+        } else if (value instanceof String) {
+            out.write(STRING);
+            out.writeUTF8((String) value);
+        } else if (value instanceof Boolean) {
+            out.write((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.write(DOUBLE);
+            out.writeLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof Number) {
+            out.write(INTEGER);
+            long number = ((Number) value).longValue();
+            out.writeVarint((number << 1) ^ (number >> 63));
+        } else if (value instanceof Map) {
+            writeMap(out, (Map<?, ?>) value, false);
+        } else if (value instanceof Mapper) {
+            writeMap(out, ((Mapper) value).toMap(), false);
+        } else if (value instanceof Collection) {
+            Collection<?> array = (Collection<?>) value;
+            out.write(LIST);
+            out.writeVarint(array.size());
+            for (Object item : array) {
+                writeValue(out, item);
+            }
+        } else if (value instanceof Object[]) {
+            writeValue(out, Arrays.asList((Object[]) value));
+        } else {
+            // Stringer (ID, ...)
+            out.write(STRING);
+            out.writeUTF8(value.toString());
+        }
+    }
+
+    //
+    //  Decode
+    //
+
+    public static ReliableMessage decodeReliableMessage(byte[] bin) {
+        return ReliableMessage.parse(decode(bin));
+    }
+
+    public static SecureMessage decodeSecureMessage(byte[] bin) {
+        return SecureMessage.parse(decode(bin));
+    }
+
+    public static Map<String, Object> decode(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            int start = buffer.arrayOffset() + buffer.position();
+            return decode(buffer.array(), start, start + buffer.remaining());
+        }
+        byte[] bin = new byte[buffer.remaining()];
+        buffer.duplicate().get(bin);
+        return decode(bin, 0, bin.length);
+    }
+
+    public static Map<String, Object> decode(byte[] bin) {
+        return decode(bin, 0, bin.length);
+    }
+
+    /**
+     *  Decode message map
+     *
+     * @param bin   - binary message
+     * @param start - start position
+     * @param end   - end position (exclusive)
+     * @return null on format error
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> decode(byte[] bin, int start, int end) {
+        Input in = new Input(bin, start, end);
+        if (in.read() != MAGIC || in.read() != VERSION || in.read() != MAP) {
+            return null;
+        }
+        Object value = readMap(in, 1);
+        if (!in.isValid() || in.pos != end) {
+            return null;
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static Map<String, Object> readMap(Input in, int depth) {
+        if (depth > MAX_DEPTH) {
+            // nested too deep
+            in.error();
+            return null;
+        }
+        long count = in.readVarint();
+        if (count < 0 || count > in.remaining()) {
+            in.error();
+            return null;
+        }
+        Map<String, Object> map = new LinkedHashMap<>((int) count * 4 / 3 + 1);
+        String key;
+        long tag;
+        for (long i = 0; i < count && in.isValid(); ++i) {
+            tag = in.readVarint();
+            if (tag == 0) {
+                key = in.readUTF8();
+            } else if (tag > 0 && tag <= KEYS.length) {
+                key = KEYS[(int) tag - 1];
+            } else {
+                in.error();
+                return null;
+            }
+            map.put(key, readValue(in, depth));
+        }
+        return map;
+    }
+
+    private static Object readValue(Input in, int depth) {
+        int type = in.read();
+        switch (type) {
+            case NULL:
+                return null;
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case INTEGER: {
+                long zigzag = in.readVarint();
+                long number = (zigzag >>> 1) ^ -(zigzag & 1);
+                if (number == (int) number) {
+                    return (int) number;
+                }
+                return number;
+            }
+            case DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case STRING:
+                return in.readUTF8();
+            case BINARY: {
+                long len = in.readVarint();
+                if (len < 0 || len > in.remaining()) {
+                    in.error();
+                    return null;
+                }
+                String base64 = Base64Codec.encode(in.buf, in.pos, (int) len);
+                in.pos += (int) len;
+                return base64;
+            }
+            case LIST: {
+                if (depth >= MAX_DEPTH) {
+                    // nested too deep
+                    in.error();
+                    return null;
+                }
+                long count = in.readVarint();
+                if (count < 0 || count > in.remaining()) {
+                    in.error();
+                    return null;
+                }
+                List<Object> array = new ArrayList<>((int) count);
+                for (long i = 0; i < count && in.isValid(); ++i) {
+                    array.add(readValue(in, depth + 1));
+                }
+                return array;
+            }
+            case MAP:
+                return readMap(in, depth + 1);
+            default:
+                in.error();
+                return null;
+        }
+    }
+
+    //
+    //  Buffers
+    //
+
+    private static final class Output {
+
+        private byte[] buf;
+        private int count;
+
+        Output(int capacity) {
+            buf = new byte[capacity];
+            count = 0;
+        }
+
+        private void ensure(int more) {
+            if (count + more > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length << 1, count + more));
+            }
+        }
+
+        void write(int b) {
+            ensure(1);
+            buf[count++] = (byte) b;
+        }
+
+        void write(byte[] src, int off, int len) {
+            ensure(len);
+            System.arraycopy(src, off, buf, count, len);
+            count += len;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[count++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[count++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[count++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeUTF8(String text) {
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length);
+            write(utf8, 0, utf8.length);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, count);
+        }
+    }
+
+    private static final class Input {
+
+        final byte[] buf;
+        final int end;
+        int pos;
+        private boolean valid;
+
+        Input(byte[] buf, int start, int end) {
+            this.buf = buf;
+            this.pos = start;
+            this.end = end;
+            this.valid = true;
+        }
+
+        boolean isValid() {
+            return valid;
+        }
+
+        void error() {
+            valid = false;
+            pos = end;
+        }
+
+        int remaining() {
+            return end - pos;
+        }
+
+        int read() {
+            if (pos >= end) {
+                error();
+                return -1;
+            }
+            return buf[pos++] & 0xFF;
+        }
+
+        long readVarint() {
+            long value = 0;
+            int b;
+            for (int shift = 0; shift < 64; shift += 7) {
+                b = read();
+                if (b < 0) {
+                    return -1;
+                }
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            error();
+            return -1;
+        }
+
+        long readLong() {
+            if (end - pos < 8) {
+                error();
+                return 0;
+            }
+            long value = 0;
+            for (int i = 0; i < 8; ++i) {
+                value = (value << 8) | (buf[pos++] & 0xFF);
+            }
+            return value;
+        }
+
+        String readUTF8() {
+            long len = readVarint();
+            if (len < 0 || len > remaining()) {
+                error();
+                return null;
+            }
+            String text = new String(buf, pos, (int) len, StandardCharsets.UTF_8);
+            pos += (int) len;
+            return text;
+        }
+    }
+
+}
@@ -30,9 +30,11 @@
  */
 package chat.dim.msg;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import chat.dim.format.PlainData;
+import chat.dim.protocol.ID;
 import chat.dim.protocol.SecureMessage;
 import chat.dim.protocol.TransportableData;
 
@@ -75,7 +77,7 @@ public class EncryptedMessage extends BaseMessage implements SecureMessage {
             Object text = get("data");
             if (text == null) {
                 assert false : "message data not found: " + toMap();
-            } else if (!isBroadcast(this)) {
+            } else if (!isBroadcast()) {
                 // message content had been encrypted by a symmetric key,
                 // so the data should be encoded here (with algorithm 'base64' as default).
                 ted = TransportableData.parse(text);
@@ -102,4 +104,41 @@ public class EncryptedMessage extends BaseMessage implements SecureMessage {
         return null;
     }
 
+    /**
+     *  Fork message info for a group member
+     *  <p>
+     *      The copy shares 'data', 'signature' and other fields with
+     *      the group message, only 'receiver', 'group' and the member's
+     *      key are stored in it; nested values shared with the group
+     *      message are read-only.
+     *  </p>
+     *
+     * @param msg    - group message
+     * @param member - member ID
+     * @return message info for member
+     */
+    public static Map<String, Object> fork(SecureMessage msg, ID member) {
+        Map<String, Object> info = new OverlayMap<>(msg.toMap());
+        // 1. move the group ID from receiver to 'group'
+        if (!info.containsKey("group")) {
+            info.put("group", msg.getReceiver().toString());
+        }
+        info.put("receiver", member.toString());
+        // 2. keep the member's key only
+        Map<String, Object> keys = msg.getEncryptedKeys();
+        if (keys != null) {
+            Map<String, Object> single = new HashMap<>();
+            Object key = keys.get(member.toString());
+            if (key != null) {
+                single.put(member.toString(), key);
+            }
+            Object digest = keys.get("digest");
+            if (digest != null) {
+                single.put("digest", digest);
+            }
+            info.put("keys", single);
+        }
+        return info;
+    }
+
 }
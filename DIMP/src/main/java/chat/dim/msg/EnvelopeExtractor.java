@@ -0,0 +1,150 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import chat.dim.format.JSONScanner;
+
+
+/**
+ *  Envelope Extractor
+ *  <p>
+ *      Scans a serialized message (UTF-8 JSON) for the envelope fields:
+ *      'sender', 'receiver', 'group', 'type' and 'time';
+ *      other values (e.g.: 'data', 'keys', 'signature') are skipped
+ *      without decoding, and no Dictionary will be built.
+ *  </p>
+ */
+public final class EnvelopeExtractor {
+    private EnvelopeExtractor() {
+        throw new AssertionError("Utility class cannot be instantiated");
+    }
+
+    private static final byte[][] FIELDS = {
+            "sender".getBytes(StandardCharsets.UTF_8),
+            "receiver".getBytes(StandardCharsets.UTF_8),
+            "group".getBytes(StandardCharsets.UTF_8),
+            "type".getBytes(StandardCharsets.UTF_8),
+            "time".getBytes(StandardCharsets.UTF_8),
+    };
+
+    private static final int SENDER   = 0;
+    private static final int RECEIVER = 1;
+    private static final int GROUP    = 2;
+    private static final int TYPE     = 3;
+    private static final int TIME     = 4;
+
+    public static RawEnvelope extract(byte[] json) {
+        return extract(json, 0, json.length);
+    }
+
+    /**
+     *  Extract envelope fields from buffer (position not changed)
+     *
+     * @param buffer - serialized message
+     * @return null on format error
+     */
+    public static RawEnvelope extract(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            int start = buffer.arrayOffset() + buffer.position();
+            return extract(buffer.array(), start, start + buffer.remaining());
+        }
+        byte[] json = new byte[buffer.remaining()];
+        buffer.duplicate().get(json);
+        return extract(json, 0, json.length);
+    }
+
+    /**
+     *  Extract envelope fields from JSON in range
+     *
+     * @param json  - serialized message
+     * @param start - start position
+     * @param end   - end position (exclusive)
+     * @return null on format error
+     */
+    public static RawEnvelope extract(byte[] json, int start, int end) {
+        JSONScanner scanner = new JSONScanner(json, start, end);
+        if (!scanner.accept('{')) {
+            return null;
+        }
+        String sender = null;
+        String receiver = null;
+        String group = null;
+        String type = null;
+        double time = Double.NaN;
+        if (!scanner.accept('}')) {
+            int index;
+            Object value;
+            do {
+                index = scanner.matchString(FIELDS);
+                if (index < -1 || !scanner.accept(':')) {
+                    return null;
+                } else if (index < 0) {
+                    // not envelope field
+                    if (!scanner.skipValue()) {
+                        return null;
+                    }
+                    continue;
+                }
+                value = scanner.readValue();
+                switch (index) {
+                    case SENDER:
+                        sender = value instanceof String ? (String) value : null;
+                        break;
+                    case RECEIVER:
+                        receiver = value instanceof String ? (String) value : null;
+                        break;
+                    case GROUP:
+                        group = value instanceof String ? (String) value : null;
+                        break;
+                    case TYPE:
+                        type = value == null ? null : value.toString();
+                        break;
+                    case TIME:
+                        time = value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+                        break;
+                    default:
+                        break;
+                }
+            } while (scanner.accept(','));
+            if (!scanner.accept('}')) {
+                return null;
+            }
+        }
+        if (scanner.hasMore()) {
+            // trailing garbage
+            return null;
+        }
+        if (sender == null) {
+            // message sender not found
+            return null;
+        }
+        return new RawEnvelope(sender, receiver, group, type, time, json, start, end - start);
+    }
+
+}
@@ -33,6 +33,7 @@ package chat.dim.msg;
 import java.util.Date;
 import java.util.Map;
 
+import chat.dim.ext.SharedClock;
 import chat.dim.protocol.Envelope;
 import chat.dim.protocol.ID;
 import chat.dim.type.Dictionary;
@@ -57,6 +58,13 @@ public class MessageEnvelope extends Dictionary implements Envelope {
     private ID sender;
     private ID receiver;
     private Date time;
+    private double timestamp;  // seconds, NaN for not loaded
+
+    // 'group' and 'type' are optional, so flags are needed
+    private ID group;
+    private boolean groupLoaded;
+    private String type;
+    private boolean typeLoaded;
 
     public MessageEnvelope(Map<String, Object> env) {
         super(env);
@@ -64,6 +72,11 @@ public class MessageEnvelope extends Dictionary implements Envelope {
         sender   = null;
         receiver = null;
         time     = null;
+        group    = null;
+        type     = null;
+        groupLoaded = false;
+        typeLoaded  = false;
+        timestamp   = Double.NaN;
     }
 
     public MessageEnvelope(ID from, ID to, Date when) {
@@ -72,15 +85,18 @@ public class MessageEnvelope extends Dictionary implements Envelope {
         if (to == null) {
             to = ID.ANYONE;
         }
-        if (when == null) {
-            when = new Date();
-        }
         sender   = from;
         receiver = to;
         time     = when;
+        group    = null;
+        type     = null;
+        groupLoaded = false;
+        typeLoaded  = false;
+        // take time from the shared clock, Date will be created on demand
+        timestamp   = when == null ? SharedClock.now() : when.getTime() / 1000.0;
         setString("sender", from);
         setString("receiver", to);
-        setDateTime("time", when);
+        put("time", timestamp);
     }
 
     @Override
@@ -115,6 +131,20 @@ public class MessageEnvelope extends Dictionary implements Envelope {
         return time;
     }
 
+    /**
+     *  Get message time without creating Date
+     *
+     * @return seconds from 1970-01-01; 0 if not found
+     */
+    public double getTimestamp() {
+        double seconds = timestamp;
+        if (Double.isNaN(seconds)) {
+            seconds = SharedClock.parseTimestamp(get("time"));
+            timestamp = seconds;
+        }
+        return seconds;
+    }
+
     /*
      *  Group ID
      *  ~~~~~~~~
@@ -124,12 +154,18 @@ public class MessageEnvelope extends Dictionary implements Envelope {
      */
     @Override
     public ID getGroup() {
-        return ID.parse(get("group"));
+        if (!groupLoaded) {
+            group = ID.parse(get("group"));
+            groupLoaded = true;
+        }
+        return group;
     }
 
     @Override
-    public void setGroup(ID group) {
-        setString("group", group);
+    public void setGroup(ID gid) {
+        setString("group", gid);
+        group = gid;
+        groupLoaded = true;
     }
 
     /*
@@ -142,11 +178,17 @@ public class MessageEnvelope extends Dictionary implements Envelope {
      */
     @Override
     public String getType() {
-        return getString("type");
+        if (!typeLoaded) {
+            type = getString("type");
+            typeLoaded = true;
+        }
+        return type;
     }
 
     @Override
-    public void setType(String type) {
-        put("type", type);
+    public void setType(String msgType) {
+        put("type", msgType);
+        type = msgType;
+        typeLoaded = true;
     }
 }
@@ -0,0 +1,374 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import chat.dim.type.Mapper;
+import chat.dim.type.Stringer;
+
+/**
+ *  Stateful compression for a message stream (HPACK style)
+ *  <p>
+ *      Field names and IDs recurring in consecutive messages on one
+ *      connection are replaced by indices into a static table and a
+ *      bounded dynamic table; the encoder and decoder of a connection
+ *      keep their tables in sync, so messages must be decoded in the
+ *      same order as they were encoded.
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  encoded message: [name, value, name, value, ...]
+ *      name  : Integer (table index) or String (literal)
+ *      value : for 'sender', 'receiver', 'group' and 'type':
+ *                  [Integer] (table index) or literal;
+ *              for 'keys' (map of ID => base64):
+ *                  {"~": [name, value, ...]};
+ *              otherwise the original value
+ *  </pre></blockquote>
+ *
+ *  <p>
+ *      Literal strings (up to 128 chars) in name or indexed value
+ *      positions are added to the dynamic table; the oldest entry is
+ *      evicted when the table is full. The tokens are plain JSON values,
+ *      so the result can be serialized by JSON or a binary codec.
+ *  </p>
+ */
+public final class MessageStreamCodec {
+    private MessageStreamCodec() {
+        throw new AssertionError("Utility class cannot be instantiated");
+    }
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    // longest string to be added into the dynamic table
+    public static final int MAX_INDEXED_LENGTH = 128;
+
+    // wrapper key for nested map
+    private static final String NESTED = "~";
+
+    private static final String[] STATIC_TABLE = {
+            "sender", "receiver", "time", "group", "type",
+            "data", "keys", "signature", "digest",
+            "meta", "visa", "traces", "sn",
+            "anyone@anywhere", "everyone@everywhere",
+    };
+
+    private static final Map<String, Integer> STATIC_INDEX = new HashMap<>();
+
+    static {
+        for (int index = 0; index < STATIC_TABLE.length; ++index) {
+            STATIC_INDEX.put(STATIC_TABLE[index], index);
+        }
+    }
+
+    // fields with values to be indexed
+    private static boolean isIndexedField(String name) {
+        switch (name) {
+            case "sender":
+            case "receiver":
+            case "group":
+            case "type":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isIndexable(String text) {
+        return text.length() <= MAX_INDEXED_LENGTH;
+    }
+
+    private static boolean isNested(Object value) {
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            return map.size() == 1 && map.get(NESTED) instanceof List;
+        }
+        return false;
+    }
+
+    /**
+     *  Dynamic table: FIFO ring of strings,
+     *  the newest entry has the smallest index (after the static table)
+     */
+    private static class Table {
+
+        final String[] ring;
+        int head;   // next position to write
+        int count;
+        long inserted;
+
+        Table(int capacity) {
+            assert capacity > 0 : "table capacity error: " + capacity;
+            ring = new String[capacity];
+            head = 0;
+            count = 0;
+            inserted = 0;
+        }
+
+        // returns the evicted entry
+        String add(String text) {
+            String evicted = count == ring.length ? ring[head] : null;
+            ring[head] = text;
+            head = (head + 1) % ring.length;
+            if (count < ring.length) {
+                ++count;
+            }
+            ++inserted;
+            return evicted;
+        }
+
+        String get(int index) {
+            if (index < 0) {
+                return null;
+            } else if (index < STATIC_TABLE.length) {
+                return STATIC_TABLE[index];
+            }
+            int pos = index - STATIC_TABLE.length;
+            if (pos >= count) {
+                return null;
+            }
+            return ring[(head - 1 - pos + ring.length) % ring.length];
+        }
+    }
+
+    /**
+     *  Encoder for outgoing messages of a connection
+     */
+    public static final class Encoder {
+
+        private final Table table;
+        // string => insertion number
+        private final Map<String, Long> positions = new HashMap<>();
+
+        public Encoder(int capacity) {
+            super();
+            table = new Table(capacity);
+        }
+
+        public Encoder() {
+            this(DEFAULT_CAPACITY);
+        }
+
+        private int indexOf(String text) {
+            Integer index = STATIC_INDEX.get(text);
+            if (index != null) {
+                return index;
+            }
+            Long number = positions.get(text);
+            if (number == null) {
+                return -1;
+            }
+            long distance = table.inserted - 1 - number;
+            if (distance >= table.count) {
+                // evicted
+                return -1;
+            }
+            return STATIC_TABLE.length + (int) distance;
+        }
+
+        private void add(String text) {
+            long number = table.inserted;
+            String evicted = table.add(text);
+            if (evicted != null) {
+                positions.remove(evicted);
+            }
+            positions.put(text, number);
+        }
+
+        private Object encodeName(String name) {
+            int index = indexOf(name);
+            if (index >= 0) {
+                return index;
+            }
+            if (isIndexable(name)) {
+                add(name);
+            }
+            return name;
+        }
+
+        private Object encodeIndexedValue(Object value) {
+            if (value instanceof Stringer) {
+                value = value.toString();
+            }
+            if (!(value instanceof String)) {
+                // e.g.: old numeric type
+                return value;
+            }
+            String text = (String) value;
+            int index = indexOf(text);
+            if (index >= 0) {
+                return Collections.singletonList(index);
+            }
+            if (isIndexable(text)) {
+                add(text);
+            }
+            return text;
+        }
+
+        private List<Object> encodeEntries(Map<?, ?> map, boolean topLevel) {
+            List<Object> tokens = new ArrayList<>(map.size() * 2);
+            String name;
+            Object value;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                name = String.valueOf(entry.getKey());
+                value = entry.getValue();
+                tokens.add(encodeName(name));
+                if (!topLevel) {
+                    tokens.add(value);
+                } else if (isIndexedField(name)) {
+                    tokens.add(encodeIndexedValue(value));
+                } else if (value instanceof Mapper) {
+                    value = ((Mapper) value).toMap();
+                    tokens.add(encodeNested(name, (Map<?, ?>) value));
+                } else if (value instanceof Map) {
+                    tokens.add(encodeNested(name, (Map<?, ?>) value));
+                } else {
+                    tokens.add(value);
+                }
+            }
+            return tokens;
+        }
+
+        private Object encodeNested(String name, Map<?, ?> value) {
+            if ("keys".equals(name) || isNested(value)) {
+                // nested map (escape the map looks like wrapper too)
+                return Collections.singletonMap(NESTED, encodeEntries(value, false));
+            }
+            return value;
+        }
+
+        public List<Object> encode(Mapper msg) {
+            return encode(msg.toMap());
+        }
+
+        /**
+         *  Encode message info
+         *
+         * @param msg - message info
+         * @return tokens
+         */
+        public List<Object> encode(Map<String, Object> msg) {
+            return encodeEntries(msg, true);
+        }
+    }
+
+    /**
+     *  Decoder for incoming messages of a connection
+     */
+    public static final class Decoder {
+
+        private final Table table;
+
+        public Decoder(int capacity) {
+            super();
+            table = new Table(capacity);
+        }
+
+        public Decoder() {
+            this(DEFAULT_CAPACITY);
+        }
+
+        private String decodeName(Object token) {
+            if (token instanceof Number) {
+                return table.get(((Number) token).intValue());
+            } else if (token instanceof String) {
+                String name = (String) token;
+                if (isIndexable(name)) {
+                    table.add(name);
+                }
+                return name;
+            }
+            return null;
+        }
+
+        private Object decodeIndexedValue(Object token) {
+            if (token instanceof List) {
+                List<?> ref = (List<?>) token;
+                if (ref.size() == 1 && ref.get(0) instanceof Number) {
+                    return table.get(((Number) ref.get(0)).intValue());
+                }
+                return null;
+            } else if (token instanceof String) {
+                String text = (String) token;
+                if (isIndexable(text)) {
+                    table.add(text);
+                }
+            }
+            return token;
+        }
+
+        private Map<String, Object> decodeEntries(List<?> tokens, boolean topLevel) {
+            int size = tokens.size();
+            if (size % 2 != 0) {
+                return null;
+            }
+            Map<String, Object> map = new LinkedHashMap<>(size * 2 / 3 + 1);
+            String name;
+            Object value;
+            for (int i = 0; i < size; i += 2) {
+                name = decodeName(tokens.get(i));
+                if (name == null) {
+                    return null;
+                }
+                value = tokens.get(i + 1);
+                if (!topLevel) {
+                    map.put(name, value);
+                    continue;
+                } else if (isIndexedField(name)) {
+                    Object token = value;
+                    value = decodeIndexedValue(token);
+                    if (value == null && token != null) {
+                        return null;
+                    }
+                } else if (isNested(value)) {
+                    value = decodeEntries((List<?>) ((Map<?, ?>) value).get(NESTED), false);
+                    if (value == null) {
+                        return null;
+                    }
+                }
+                map.put(name, value);
+            }
+            return map;
+        }
+
+        /**
+         *  Decode message info
+         *
+         * @param tokens - encoded message
+         * @return null on error (the connection should be reset then)
+         */
+        public Map<String, Object> decode(List<?> tokens) {
+            return decodeEntries(tokens, true);
+        }
+    }
+
+}
@@ -32,6 +32,7 @@ package chat.dim.msg;
 
 import java.util.Map;
 
+import chat.dim.format.LazyJSONMap;
 import chat.dim.protocol.ReliableMessage;
 import chat.dim.protocol.TransportableData;
 
@@ -82,4 +83,20 @@ public class NetworkMessage extends EncryptedMessage implements ReliableMessage
         return ted;
     }
 
+    /**
+     *  Create message over raw JSON, values will be decoded on access;
+     *  stations can route it without decoding 'data', 'keys' and 'signature'
+     *
+     * @param json - UTF-8 encoded JSON
+     * @return null on format error
+     */
+    public static NetworkMessage parseJSON(byte[] json) {
+        LazyJSONMap info = LazyJSONMap.parse(json);
+        if (info == null) {
+            assert false : "message json error";
+            return null;
+        }
+        return new NetworkMessage(info);
+    }
+
 }
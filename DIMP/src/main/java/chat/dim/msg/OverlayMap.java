@@ -0,0 +1,343 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *  Copy-on-write Overlay Map
+ *  <p>
+ *      Reads fall through to the parent map, while writes and removals
+ *      are kept in this map only; so copies of a big message (e.g.: split
+ *      for each group member) can share 'data', 'signature' and other
+ *      fields with the parent, and store only the overridden entries.
+ *  </p>
+ *  <p>
+ *      Nested maps and lists (e.g.: 'traces', 'meta', 'visa') from the
+ *      parent are returned as read-only views, so nothing is copied and
+ *      reading never changes this overlay; to change a nested value,
+ *      put a new copy of it into this overlay.
+ *  </p>
+ *  <p>
+ *      The parent map must not be modified while the overlays are in use.
+ *  </p>
+ */
+public class OverlayMap<K, V> extends AbstractMap<K, V> {
+
+    private final Map<K, V> parent;
+
+    // new values for keys in parent
+    private final Map<K, V> replaced;
+    // entries not in parent
+    private final Map<K, V> added;
+    // keys in parent removed from this overlay
+    private final Set<Object> removed;
+
+    public OverlayMap(Map<K, V> parent) {
+        super();
+        this.parent = parent;
+        this.replaced = new HashMap<>();
+        this.added = new LinkedHashMap<>();
+        this.removed = new HashSet<>();
+    }
+
+    public Map<K, V> getParent() {
+        return parent;
+    }
+
+    /**
+     *  Entries stored in this overlay (not shared)
+     *
+     * @return a copy of replaced and added entries
+     */
+    public Map<K, V> getOverrides() {
+        Map<K, V> overrides = new HashMap<>(replaced);
+        overrides.putAll(added);
+        return overrides;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (replaced.containsKey(key)) {
+            return true;
+        } else if (removed.contains(key)) {
+            return false;
+        } else if (parent.containsKey(key)) {
+            return true;
+        }
+        return added.containsKey(key);
+    }
+
+    @Override
+    public V get(Object key) {
+        V value = replaced.get(key);
+        if (value != null || replaced.containsKey(key)) {
+            return value;
+        } else if (removed.contains(key)) {
+            return null;
+        } else if (!parent.containsKey(key)) {
+            return added.get(key);
+        }
+        return readOnly(parent.get(key));
+    }
+
+    // wrap mutable value from parent as read-only view
+    @SuppressWarnings("unchecked")
+    private static <T> T readOnly(T value) {
+        if (value instanceof Map) {
+            return (T) new ReadOnlyMap<>((Map<Object, Object>) value);
+        } else if (value instanceof List) {
+            return (T) new ReadOnlyList<>((List<Object>) value);
+        }
+        return value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (parent.containsKey(key)) {
+            boolean existed = !removed.remove(key);
+            V old = replaced.containsKey(key) ? replaced.get(key) : readOnly(parent.get(key));
+            replaced.put(key, value);
+            return existed ? old : null;
+        }
+        return added.put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!parent.containsKey(key)) {
+            return added.remove(key);
+        } else if (removed.contains(key)) {
+            return null;
+        }
+        V old = replaced.containsKey(key) ? replaced.remove(key) : readOnly(parent.get(key));
+        removed.add(key);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        replaced.clear();
+        added.clear();
+        removed.addAll(parent.keySet());
+    }
+
+    @Override
+    public int size() {
+        return parent.size() - removed.size() + added.size();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return OverlayMap.this.size();
+            }
+        };
+    }
+
+    /**
+     *  Parent entries first (skip removed, with replaced values),
+     *  then the entries added to this overlay
+     */
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private final Iterator<Entry<K, V>> parentIterator = parent.entrySet().iterator();
+        private final Iterator<Entry<K, V>> addedIterator = added.entrySet().iterator();
+
+        // next parent entry (not removed)
+        private Entry<K, V> next = null;
+
+        // key of the last parent entry returned
+        private K last = null;
+        private boolean lastInParent = false;
+        private boolean hasLast = false;
+
+        private boolean nextParent() {
+            Entry<K, V> entry;
+            while (next == null && parentIterator.hasNext()) {
+                entry = parentIterator.next();
+                if (!removed.contains(entry.getKey())) {
+                    next = entry;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextParent() || addedIterator.hasNext();
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (nextParent()) {
+                K key = next.getKey();
+                V value;
+                if (replaced.containsKey(key)) {
+                    value = replaced.get(key);
+                } else {
+                    value = readOnly(next.getValue());
+                }
+                next = null;
+                last = key;
+                lastInParent = true;
+                hasLast = true;
+                return new OverlayEntry(key, value);
+            }
+            Entry<K, V> entry = addedIterator.next();
+            last = null;
+            lastInParent = false;
+            hasLast = true;
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (!hasLast) {
+                throw new IllegalStateException();
+            } else if (lastInParent) {
+                // parent entry, only marked as removed
+                OverlayMap.this.remove(last);
+            } else {
+                // added entry, iterated directly
+                addedIterator.remove();
+            }
+            hasLast = false;
+        }
+    }
+
+    private final class OverlayEntry extends SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        OverlayEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    /**
+     *  Read-only view of a nested map in parent
+     */
+    private static final class ReadOnlyMap<K, V> extends AbstractMap<K, V> {
+
+        private final Map<K, V> map;
+
+        ReadOnlyMap(Map<K, V> map) {
+            super();
+            this.map = map;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            return readOnly(map.get(key));
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    Iterator<Entry<K, V>> iterator = map.entrySet().iterator();
+                    return new Iterator<Entry<K, V>>() {
+
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            Entry<K, V> entry = iterator.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), readOnly(entry.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return map.size();
+                }
+            };
+        }
+    }
+
+    /**
+     *  Read-only view of a nested list in parent
+     */
+    private static final class ReadOnlyList<E> extends AbstractList<E> {
+
+        private final List<E> list;
+
+        ReadOnlyList(List<E> list) {
+            super();
+            this.list = list;
+        }
+
+        @Override
+        public E get(int index) {
+            return readOnly(list.get(index));
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Date;
+
+import chat.dim.protocol.ID;
+
+
+/**
+ *  Envelope fields extracted from a serialized message
+ *  <p>
+ *      The original bytes are kept for forwarding unchanged.
+ *  </p>
+ */
+public final class RawEnvelope {
+
+    private final String sender;
+    private final String receiver;
+    private final String group;
+    private final String type;
+    private final double time;  // seconds, NaN if not found
+
+    // original message bytes: json[offset, offset + length)
+    private final byte[] json;
+    private final int offset;
+    private final int length;
+
+    RawEnvelope(String sender, String receiver, String group, String type, double time,
+                byte[] json, int offset, int length) {
+        super();
+        this.sender = sender;
+        this.receiver = receiver;
+        this.group = group;
+        this.type = type;
+        this.time = time;
+        this.json = json;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public String getSender() {
+        return sender;
+    }
+
+    public String getReceiver() {
+        return receiver;
+    }
+
+    // null if not exposed
+    public String getGroup() {
+        return group;
+    }
+
+    // null if not exposed
+    public String getType() {
+        return type;
+    }
+
+    // seconds from 1970-01-01, NaN if not found
+    public double getTimestamp() {
+        return time;
+    }
+
+    public Date getTime() {
+        return Double.isNaN(time) ? null : new Date((long) (time * 1000));
+    }
+
+    public ID getSenderID() {
+        return ID.parse(sender);
+    }
+
+    public ID getReceiverID() {
+        return ID.parse(receiver);
+    }
+
+    public ID getGroupID() {
+        return ID.parse(group);
+    }
+
+    /**
+     *  Original message bytes
+     *
+     * @return read-only view
+     */
+    public ByteBuffer getMessage() {
+        return ByteBuffer.wrap(json, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    public int getMessageLength() {
+        return length;
+    }
+
+    /**
+     *  Forward the original message bytes unchanged
+     *
+     * @param channel - output channel
+     * @return bytes written
+     */
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = getMessage();
+        long count = 0;
+        while (buffer.hasRemaining()) {
+            count += channel.write(buffer);
+        }
+        return count;
+    }
+
+    public long writeTo(OutputStream out) throws IOException {
+        // write from the backing array, no copy
+        out.write(json, offset, length);
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return "<" + getClass().getSimpleName() + " sender=\"" + sender + "\" receiver=\"" + receiver
+                + "\" group=\"" + group + "\" type=\"" + type + "\" time=" + time
+                + " length=" + length + " />";
+    }
+
+}
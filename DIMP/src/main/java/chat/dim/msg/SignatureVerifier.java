@@ -0,0 +1,196 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import chat.dim.protocol.ForwardContent;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.TransportableData;
+import chat.dim.protocol.VerifyKey;
+
+/**
+ *  Batch Signature Verifier
+ *  <p>
+ *      Verifies signatures of reliable messages on a fork-join pool;
+ *      sender keys are looked up only once for each distinct sender
+ *      (in the calling thread), and the results are in input order.
+ *  </p>
+ */
+public class SignatureVerifier {
+
+    /**
+     *  Public keys of user
+     */
+    public interface KeyProvider {
+
+        /**
+         *  Get user's public keys for verification
+         *
+         * @param user - sender ID
+         * @return visa key and meta key; null on not found
+         */
+        List<VerifyKey> getPublicKeysForVerification(ID user);
+
+    }
+
+    // messages per task
+    private static final int THRESHOLD = 8;
+
+    private final KeyProvider provider;
+    private final ForkJoinPool pool;
+
+    public SignatureVerifier(KeyProvider keyProvider, ForkJoinPool forkJoinPool) {
+        super();
+        provider = keyProvider;
+        pool = forkJoinPool;
+    }
+
+    public SignatureVerifier(KeyProvider keyProvider) {
+        this(keyProvider, ForkJoinPool.commonPool());
+    }
+
+    /**
+     *  Verify secret messages in forward content
+     *
+     * @param content - forward content (top-secret)
+     * @return results in order of content.getSecrets()
+     */
+    public boolean[] verifySecrets(ForwardContent content) {
+        return verify(content.getSecrets());
+    }
+
+    /**
+     *  Verify messages
+     *
+     * @param messages - reliable messages
+     * @return results in input order
+     */
+    public boolean[] verify(List<? extends ReliableMessage> messages) {
+        int count = messages.size();
+        boolean[] results = new boolean[count];
+        if (count == 0) {
+            return results;
+        }
+        // 1. look up keys for each distinct sender
+        VerifyKey[][] keys = new VerifyKey[count][];
+        Map<ID, VerifyKey[]> senderKeys = new HashMap<>();
+        ID sender;
+        VerifyKey[] array;
+        for (int i = 0; i < count; ++i) {
+            sender = messages.get(i).getSender();
+            if (sender == null) {
+                continue;
+            }
+            array = senderKeys.get(sender);
+            if (array == null) {
+                List<VerifyKey> list = provider.getPublicKeysForVerification(sender);
+                array = list == null ? new VerifyKey[0] : list.toArray(new VerifyKey[0]);
+                senderKeys.put(sender, array);
+            }
+            keys[i] = array;
+        }
+        // 2. decode & verify in parallel
+        VerifyTask task = new VerifyTask(messages, keys, results, 0, count);
+        if (count <= THRESHOLD) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return results;
+    }
+
+    /**
+     *  Verify one message with sender's keys
+     *
+     * @param msg  - reliable message
+     * @param keys - sender's public keys
+     * @return false on data/signature error, or not verified
+     */
+    protected boolean verify(ReliableMessage msg, VerifyKey[] keys) {
+        if (keys == null || keys.length == 0) {
+            return false;
+        }
+        TransportableData data = msg.getData();
+        TransportableData signature = msg.getSignature();
+        if (data == null || signature == null) {
+            return false;
+        }
+        byte[] body = data.getBytes();
+        byte[] sig = signature.getBytes();
+        if (body == null || sig == null) {
+            return false;
+        }
+        for (VerifyKey key : keys) {
+            if (key.verify(body, sig)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class VerifyTask extends RecursiveAction {
+
+        private final List<? extends ReliableMessage> messages;
+        private final VerifyKey[][] keys;
+        private final boolean[] results;
+        private final int from;
+        private final int to;
+
+        VerifyTask(List<? extends ReliableMessage> messages, VerifyKey[][] keys, boolean[] results, int from, int to) {
+            super();
+            this.messages = messages;
+            this.keys = keys;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new VerifyTask(messages, keys, results, from, mid),
+                          new VerifyTask(messages, keys, results, mid, to));
+                return;
+            }
+            for (int i = from; i < to; ++i) {
+                try {
+                    results[i] = verify(messages.get(i), keys[i]);
+                } catch (RuntimeException e) {
+                    // one broken message should not fail the whole batch
+                    results[i] = false;
+                }
+            }
+        }
+    }
+
+}
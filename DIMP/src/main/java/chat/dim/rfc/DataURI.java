@@ -25,9 +25,10 @@
  */
 package chat.dim.rfc;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -42,16 +43,49 @@ import java.util.Set;
 public class DataURI {
 
     public final Header head;  // "mime-type", "charset", "encoding"
-    public final String body;  // encoded data
+
+    /**
+     *  Encoded data
+     *
+     * @deprecated use getBody() instead
+     */
+    @Deprecated
+    public final String body;
 
     private String uriString;  // built string
 
+    public DataURI(Header head, CharSequence body) {
+        this(head, body == null ? null : body.toString(), null);
+    }
+
     public DataURI(Header head, String body) {
+        this(head, body, null);
+    }
+
+    // parsed from URI string, which will be kept as the built string
+    private DataURI(Header head, String body, String uri) {
         super();
         this.head = head;
         this.body = body;
-        // lazy load
-        uriString = null;
+        uriString = uri;
+    }
+
+    /**
+     *  Get encoded data
+     *
+     * @return encoded data
+     */
+    public CharSequence getBody() {
+        return body;
+    }
+
+    /**
+     *  Get encoded data as string
+     *
+     * @return encoded data
+     */
+    public String getBodyString() {
+        return body;
     }
 
     public boolean isEmpty() {
@@ -86,16 +120,73 @@ public class DataURI {
         String text = uriString;
         if (text == null) {
             String header = head.toString();
-            if (/*header == null || */header.isEmpty()) {
-                text = "data:," + body;
-            } else {
-                text = "data:" + header + "," + body;
-            }
+            String encoded = body;
+            int len = encoded == null ? 4 : encoded.length();
+            StringBuilder sb = new StringBuilder(6 + header.length() + len);
+            sb.append("data:").append(header).append(',').append(encoded);
+            text = sb.toString();
             uriString = text;
         }
         return text;
     }
 
+    /**
+     *  Write URI string into a text sink without building it
+     *
+     * @param out - text sink
+     */
+    public void writeTo(Appendable out) throws IOException {
+        String text = uriString;
+        if (text != null) {
+            out.append(text);
+            return;
+        }
+        out.append("data:").append(head.toString()).append(',').append(body);
+    }
+
+    /**
+     *  Write URI string into a byte sink (UTF-8) without building it
+     *
+     * @param out - byte sink
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        String text = uriString;
+        if (text != null) {
+            write(out, text);
+            return;
+        }
+        write(out, "data:");
+        write(out, head.toString());
+        out.write(',');
+        write(out, String.valueOf(body));
+    }
+
+    private static void write(OutputStream out, CharSequence text) throws IOException {
+        final int len = text.length();
+        byte[] buffer = new byte[Math.min(len, 8192)];
+        int count = 0;
+        char ch;
+        for (int i = 0; i < len; ++i) {
+            ch = text.charAt(i);
+            if (ch >= 0x80) {
+                // not ASCII, encode the rest by charset
+                out.write(buffer, 0, count);
+                count = 0;
+                String rest = text.subSequence(i, len).toString();
+                out.write(rest.getBytes(StandardCharsets.UTF_8));
+                break;
+            }
+            buffer[count++] = (byte) ch;
+            if (count == buffer.length) {
+                out.write(buffer, 0, count);
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            out.write(buffer, 0, count);
+        }
+    }
+
     /**
      *  Split text string for data URI
      */
@@ -112,7 +203,7 @@ public class DataURI {
         }
         Header head = Header.splitHeader(uri, pos);
         String body = uri.substring(pos + 1);
-        return new DataURI(head, body);
+        return new DataURI(head, body, uri);
     }
 
     /**
@@ -167,44 +258,179 @@ public class DataURI {
         public String toString() {
             String text = headerString;
             if (text == null) {
-                List<String> items = new ArrayList<>();
+                StringBuilder sb = new StringBuilder();
                 //
                 //  1. 'mime-type'
                 //
                 if (mimeType != null && !mimeType.isEmpty()) {
-                    items.add(mimeType);
+                    sb.append(mimeType);
                 } else if (encoding != null && !encoding.isEmpty()) {
                     // make sure 'mime-type' is the first header
-                    items.add(MIME.ContentType.TEXT_PLAIN);
+                    sb.append(MIME.ContentType.TEXT_PLAIN);
                 } else if (extra != null && !extra.isEmpty()) {
                     // make sure 'mime-type' is the first header
-                    items.add(MIME.ContentType.TEXT_PLAIN);
+                    sb.append(MIME.ContentType.TEXT_PLAIN);
                 }
                 //
                 //  2. extra info: 'charset' & 'filename'
                 //
                 if (extra != null/* && !extra.isEmpty()*/) {
                     for (Map.Entry<String, String> entry : extra.entrySet()) {
-                        items.add(entry.getKey() + "=" + entry.getValue());
+                        if (sb.length() > 0) {
+                            sb.append(';');
+                        }
+                        sb.append(entry.getKey()).append('=').append(entry.getValue());
                     }
                 }
                 //
                 //  3. 'encoding'
                 //
                 if (encoding != null && !encoding.isEmpty()) {
-                    items.add(encoding);
+                    if (sb.length() > 0) {
+                        sb.append(';');
+                    }
+                    sb.append(encoding);
                 }
                 // build header
-                if (items.isEmpty()) {
-                    text = "";
-                } else {
-                    text = String.join(";", items);
-                }
+                text = sb.toString();
                 headerString = text;
             }
             return text;
         }
 
+        //
+        //  Canonical headers
+        //
+
+        // common mime types, shared by most embedded data
+        private static final String[] COMMON_TYPES = {
+                MIME.ContentType.TEXT_PLAIN,
+                MIME.ContentType.TEXT_HTML,
+                MIME.ContentType.TEXT_XML,
+                MIME.ContentType.TEXT_CSS,
+                MIME.ContentType.TEXT_JS,
+
+                MIME.ContentType.IMAGE_BMP,
+                MIME.ContentType.IMAGE_GIF,
+                MIME.ContentType.IMAGE_PNG,
+                MIME.ContentType.IMAGE_JPG,
+                MIME.ContentType.IMAGE_ICON,
+                MIME.ContentType.IMAGE_SVG,
+                MIME.ContentType.IMAGE_WEB_P,
+
+                MIME.ContentType.AUDIO_WAV,
+                MIME.ContentType.AUDIO_OGG,
+                MIME.ContentType.AUDIO_MP3,
+                MIME.ContentType.AUDIO_MP4,
+                MIME.ContentType.AUDIO_MPG,
+
+                MIME.ContentType.VIDEO_MP4,
+                MIME.ContentType.VIDEO_MPG,
+                MIME.ContentType.VIDEO_OGG,
+                MIME.ContentType.VIDEO_WEB_M,
+
+                MIME.ContentType.APP_PDF,
+                MIME.ContentType.APP_WORD,
+                MIME.ContentType.APP_EXCEL,
+                MIME.ContentType.APP_PPT,
+                MIME.ContentType.APP_ZIP,
+                MIME.ContentType.APP_XML,
+                MIME.ContentType.APP_JSON,
+                MIME.ContentType.APP_OCTET_STREAM,
+        };
+
+        // canonical headers grouped by length of header string
+        private static final Header[][] CANONICAL = buildCanonicalHeaders();
+
+        private static Header[][] buildCanonicalHeaders() {
+            int max = 0;
+            for (String type : COMMON_TYPES) {
+                // "{mime-type};base64"
+                max = Math.max(max, type.length() + 7);
+            }
+            Header[][] table = new Header[max + 1][];
+            for (String type : COMMON_TYPES) {
+                add(table, new Header(type, null, null, type));
+                add(table, new Header(type, "base64", null, type + ";base64"));
+            }
+            return table;
+        }
+
+        private static void add(Header[][] table, Header head) {
+            int len = head.headerString.length();
+            Header[] bucket = table[len];
+            if (bucket == null) {
+                bucket = new Header[1];
+            } else {
+                Header[] array = new Header[bucket.length + 1];
+                System.arraycopy(bucket, 0, array, 0, bucket.length);
+                bucket = array;
+            }
+            bucket[bucket.length - 1] = head;
+            table[len] = bucket;
+        }
+
+        // create canonical header with built string
+        private Header(String mimeType, String encoding, Map<String, String> extra, String text) {
+            super();
+            this.mimeType = mimeType;
+            this.encoding = encoding;
+            this.extra = extra;
+            headerString = text;
+        }
+
+        /**
+         *  Get canonical header for the header text in range (no copy)
+         *
+         * @param text  - URI string
+         * @param start - start position of header
+         * @param end   - end position of header (exclusive)
+         * @return null if not a common header
+         */
+        private static Header lookup(String text, int start, int end) {
+            int len = end - start;
+            if (len >= CANONICAL.length) {
+                return null;
+            }
+            Header[] bucket = CANONICAL[len];
+            if (bucket == null) {
+                return null;
+            }
+            for (Header head : bucket) {
+                if (text.regionMatches(start, head.headerString, 0, len)) {
+                    return head;
+                }
+            }
+            return null;
+        }
+
+        /**
+         *  Create header, reuse the canonical one if possible
+         *
+         * @param mimeType - "image/png"
+         * @param encoding - "base64"
+         * @param extra    - "charset", "filename", ...
+         * @return header
+         */
+        public static Header create(String mimeType, String encoding, Map<String, String> extra) {
+            if (mimeType != null && (extra == null || extra.isEmpty())) {
+                int len = mimeType.length();
+                if (encoding != null) {
+                    len += 1 + encoding.length();
+                }
+                Header[] bucket = len < CANONICAL.length ? CANONICAL[len] : null;
+                if (bucket != null) {
+                    for (Header head : bucket) {
+                        if (mimeType.equals(head.mimeType) &&
+                                (encoding == null ? head.encoding == null : encoding.equals(head.encoding))) {
+                            return head;
+                        }
+                    }
+                }
+            }
+            return new Header(mimeType, encoding, extra);
+        }
+
         // samples:
         //    "data:,A%20simple%20text"
         //    "data:text/html,<p>Hello, World!</p>"
@@ -221,50 +447,70 @@ public class DataURI {
                 return new Header(null, null, null);
             }
             assert end < uri.length() - 1 : "data URI error: " + uri;
-            final String[] array = uri.substring(5, end).split(";");
+            // check common headers: "image/png;base64", ...
+            Header common = lookup(uri, 5, end);
+            if (common != null) {
+                return common;
+            }
             // split main info
             String mimeType = null;
             String encoding = null;
             // split extra info
             Map<String, String> extra = null;
-            int pos;
             String name;
             String value;
-            for (final String item : array) {
-                if (item.length() == 0) {
-                    assert false : "header error: " + uri;
+            int start = 5;
+            int eq;
+            int slash;
+            char ch;
+            for (int pos = start; pos <= end; ++pos) {
+                if (pos < end && uri.charAt(pos) != ';') {
                     continue;
                 }
-                //
-                //  2. extra info: 'charset' or 'filename'
-                //
-                pos = item.indexOf('=');
-                if (pos >= 0) {
-                    assert 0 < pos && pos < item.length() - 1 : "header error: " + item;
+                // item: [start, pos)
+                if (pos == start) {
+                    // empty parameter, e.g.: "data:text/plain;,abc"
+                    start = pos + 1;
+                    continue;
+                }
+                eq = -1;
+                slash = -1;
+                for (int i = start; i < pos; ++i) {
+                    ch = uri.charAt(i);
+                    if (ch == '=') {
+                        eq = i;
+                        break;
+                    } else if (ch == '/' && slash < 0) {
+                        slash = i;
+                    }
+                }
+                if (eq >= 0) {
+                    //
+                    //  2. extra info: 'charset' or 'filename'
+                    //
+                    assert start < eq && eq < pos - 1 : "header error: " + uri.substring(start, pos);
                     if (extra == null) {
                         extra = new HashMap<>();
                     }
-                    name = item.substring(0, pos);
+                    name = uri.substring(start, eq);
                     name = name.toLowerCase();
-                    value = item.substring(pos + 1);
+                    value = uri.substring(eq + 1, pos);
                     extra.put(name, value);
-                    continue;
-                }
-                //
-                //  1. 'mime-type'
-                //
-                pos = item.indexOf('/');
-                if (pos >= 0) {
-                    assert 0 < pos && pos < item.length() - 1 : "header error: " + item;
+                } else if (slash >= 0) {
+                    //
+                    //  1. 'mime-type'
+                    //
+                    assert start < slash && slash < pos - 1 : "header error: " + uri.substring(start, pos);
                     assert mimeType == null : "duplicate mime-type: " + uri;
-                    mimeType = item;
-                    continue;
+                    mimeType = uri.substring(start, pos);
+                } else {
+                    //
+                    //  3. 'encoding'
+                    //
+                    assert encoding == null : "duplicate encoding: " + uri;
+                    encoding = uri.substring(start, pos);
                 }
-                //
-                //  3. 'encoding'
-                //
-                assert encoding == null : "duplicate encoding: " + uri;
-                encoding = item;
+                start = pos + 1;
             }
             return new Header(mimeType, encoding, extra);
         }
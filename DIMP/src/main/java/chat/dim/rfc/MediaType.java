@@ -0,0 +1,405 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.rfc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ *  Media Type
+ *  <p>
+ *      "type/subtype" with precomputed flags;
+ *      resolved by content type, by file extension,
+ *      or detected from the leading bytes (magic number) of data.
+ *      Only registered types are interned, unknown types (e.g.: from
+ *      remote messages) are created on each call and not cached.
+ *  </p>
+ */
+public final class MediaType {
+
+    public final String type;     // "image"
+    public final String subtype;  // "png"
+
+    public final boolean isText;
+    public final boolean isImage;
+    public final boolean isAudio;
+    public final boolean isVideo;
+
+    private final String contentType;  // "image/png"
+
+    private MediaType(String type, String subtype) {
+        super();
+        this.type = type;
+        this.subtype = subtype;
+        this.isText = MIME.TEXT.equals(type);
+        this.isImage = MIME.IMAGE.equals(type);
+        this.isAudio = MIME.AUDIO.equals(type);
+        this.isVideo = MIME.VIDEO.equals(type);
+        this.contentType = type + "/" + subtype;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other instanceof MediaType) {
+            return contentType.equals(((MediaType) other).contentType);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return contentType.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return contentType;
+    }
+
+    //
+    //  Registry
+    //
+
+    // registered types, interned by content type
+    private static final Map<String, MediaType> types = new ConcurrentHashMap<>();
+
+    // file extension => media type
+    private static final Map<String, MediaType> extensions = new ConcurrentHashMap<>();
+
+    // magic number => media type
+    private static final Node magic = new Node();
+
+    /**
+     *  Get media type; registered types are interned,
+     *  others are created without caching
+     *
+     * @param contentType - "type/subtype"
+     * @return null on error
+     */
+    public static MediaType get(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        MediaType mt = types.get(contentType);
+        if (mt == null) {
+            String text = normalize(contentType);
+            if (text == null) {
+                // not a media type
+                return null;
+            }
+            mt = types.get(text);
+            if (mt == null) {
+                int pos = text.indexOf('/');
+                mt = new MediaType(text.substring(0, pos), text.substring(pos + 1));
+            }
+        }
+        return mt;
+    }
+
+    // "Type/SubType " => "type/subtype"
+    private static String normalize(String contentType) {
+        String text = contentType.trim().toLowerCase(Locale.ROOT);
+        int pos = text.indexOf('/');
+        if (pos <= 0 || pos == text.length() - 1) {
+            return null;
+        }
+        return text;
+    }
+
+    /**
+     *  Resolve media type by file extension
+     *
+     * @param filename - "avatar.png", ".png" or "png"
+     * @return null for unknown extension
+     */
+    public static MediaType fromExtension(String filename) {
+        if (filename == null) {
+            return null;
+        }
+        String ext = filename.substring(filename.lastIndexOf('.') + 1);
+        MediaType mt = extensions.get(ext);
+        if (mt == null) {
+            mt = extensions.get(ext.toLowerCase(Locale.ROOT));
+        }
+        return mt;
+    }
+
+    public static MediaType detect(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return detect(data, 0, data.length);
+    }
+
+    /**
+     *  Detect media type from the leading bytes of data
+     *
+     * @param data - file data
+     * @param off  - start position
+     * @param len  - data length
+     * @return null for unknown format
+     */
+    public static MediaType detect(byte[] data, int off, int len) {
+        if (data == null) {
+            return null;
+        }
+        return magic.match(data, off, off + len);
+    }
+
+    /**
+     *  Register a media type with file extensions
+     *
+     * @param contentType - "type/subtype"
+     * @param exts        - file extensions (without '.')
+     * @return interned media type
+     */
+    public static MediaType register(String contentType, String... exts) {
+        String text = normalize(contentType);
+        if (text == null) {
+            assert false : "content type error: " + contentType;
+            return null;
+        }
+        MediaType mt = types.get(text);
+        if (mt == null) {
+            int pos = text.indexOf('/');
+            mt = new MediaType(text.substring(0, pos), text.substring(pos + 1));
+            MediaType old = types.putIfAbsent(text, mt);
+            if (old != null) {
+                mt = old;
+            }
+        }
+        for (String ext : exts) {
+            extensions.put(ext.toLowerCase(Locale.ROOT), mt);
+        }
+        return mt;
+    }
+
+    // pattern: leading bytes; ANY (-1) matches any byte
+    private static void registerMagic(MediaType mt, int... pattern) {
+        magic.insert(pattern, 0, mt);
+    }
+
+    private static void registerMagic(MediaType mt, String prefix, String... more) {
+        StringBuilder sb = new StringBuilder(prefix);
+        for (String item : more) {
+            sb.append(item);
+        }
+        byte[] ascii = sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+        int[] pattern = new int[ascii.length];
+        for (int i = 0; i < ascii.length; ++i) {
+            // '?' stands for any byte in these patterns
+            pattern[i] = ascii[i] == '?' ? ANY : ascii[i] & 0xFF;
+        }
+        registerMagic(mt, pattern);
+    }
+
+    private static final int ANY = -1;
+
+    /**
+     *  Prefix trie of magic numbers; wildcard edges match any byte,
+     *  the longest matched signature wins.
+     */
+    private static final class Node {
+
+        private byte[] keys = new byte[0];
+        private Node[] children = new Node[0];
+        private Node wildcard;
+        private MediaType value;
+
+        void insert(int[] pattern, int pos, MediaType mt) {
+            if (pos == pattern.length) {
+                value = mt;
+                return;
+            }
+            int b = pattern[pos];
+            Node child;
+            if (b < 0) {
+                if (wildcard == null) {
+                    wildcard = new Node();
+                }
+                child = wildcard;
+            } else {
+                int index = indexOf((byte) b);
+                if (index < 0) {
+                    int count = keys.length;
+                    byte[] newKeys = new byte[count + 1];
+                    Node[] newChildren = new Node[count + 1];
+                    System.arraycopy(keys, 0, newKeys, 0, count);
+                    System.arraycopy(children, 0, newChildren, 0, count);
+                    newKeys[count] = (byte) b;
+                    newChildren[count] = new Node();
+                    keys = newKeys;
+                    children = newChildren;
+                    index = count;
+                }
+                child = children[index];
+            }
+            child.insert(pattern, pos + 1, mt);
+        }
+
+        private int indexOf(byte b) {
+            byte[] array = keys;
+            for (int i = 0; i < array.length; ++i) {
+                if (array[i] == b) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        MediaType match(byte[] data, int pos, int end) {
+            Result res = deepMatch(data, pos, end, 0);
+            return res == null ? null : res.type;
+        }
+
+        // exact edge first, then the wildcard edge
+        private Result deepMatch(byte[] data, int pos, int end, int depth) {
+            Result best = value == null ? null : new Result(value, depth);
+            if (pos < end) {
+                int index = indexOf(data[pos]);
+                if (index >= 0) {
+                    Result res = children[index].deepMatch(data, pos + 1, end, depth + 1);
+                    if (res != null && (best == null || res.depth > best.depth)) {
+                        best = res;
+                    }
+                }
+                if (wildcard != null) {
+                    Result res = wildcard.deepMatch(data, pos + 1, end, depth + 1);
+                    if (res != null && (best == null || res.depth > best.depth)) {
+                        best = res;
+                    }
+                }
+            }
+            return best;
+        }
+    }
+
+    private static final class Result {
+        final MediaType type;
+        final int depth;
+        Result(MediaType type, int depth) {
+            this.type = type;
+            this.depth = depth;
+        }
+    }
+
+    static {
+        //
+        //  text/*
+        //
+        register(MIME.ContentType.TEXT_PLAIN, "txt", "text", "log");
+        register(MIME.ContentType.TEXT_HTML, "html", "htm");
+        register(MIME.ContentType.TEXT_XML);
+        register(MIME.ContentType.TEXT_CSS, "css");
+        register(MIME.ContentType.TEXT_JS, "js", "mjs");
+
+        //
+        //  image/*
+        //
+        MediaType bmp = register(MIME.ContentType.IMAGE_BMP, "bmp");
+        MediaType gif = register(MIME.ContentType.IMAGE_GIF, "gif");
+        MediaType png = register(MIME.ContentType.IMAGE_PNG, "png");
+        MediaType jpg = register(MIME.ContentType.IMAGE_JPG, "jpg", "jpeg", "jpe");
+        MediaType ico = register(MIME.ContentType.IMAGE_ICON, "ico");
+        register(MIME.ContentType.IMAGE_SVG, "svg");
+        MediaType webp = register(MIME.ContentType.IMAGE_WEB_P, "webp");
+        MediaType heic = register("image/heic", "heic", "heif");
+        MediaType avif = register("image/avif", "avif");
+        // alias
+        types.put("image/jpg", jpg);
+
+        //
+        //  audio/*
+        //
+        MediaType wav = register(MIME.ContentType.AUDIO_WAV, "wav");
+        MediaType oga = register(MIME.ContentType.AUDIO_OGG, "ogg", "oga", "opus");
+        MediaType mp3 = register(MIME.ContentType.AUDIO_MPG, "mp3");
+        MediaType m4a = register(MIME.ContentType.AUDIO_MP4, "m4a");
+        register(MIME.ContentType.AUDIO_MP3);
+
+        //
+        //  video/*
+        //
+        MediaType mp4 = register(MIME.ContentType.VIDEO_MP4, "mp4", "m4v");
+        register(MIME.ContentType.VIDEO_MPG, "mpeg", "mpg");
+        register(MIME.ContentType.VIDEO_OGG, "ogv");
+        MediaType webm = register(MIME.ContentType.VIDEO_WEB_M, "webm");
+
+        //
+        //  application/*
+        //
+        MediaType pdf = register(MIME.ContentType.APP_PDF, "pdf");
+        register(MIME.ContentType.APP_WORD, "doc");
+        register(MIME.ContentType.APP_EXCEL, "xls");
+        register(MIME.ContentType.APP_PPT, "ppt");
+        MediaType zip = register(MIME.ContentType.APP_ZIP, "zip");
+        register(MIME.ContentType.APP_XML, "xml");
+        register(MIME.ContentType.APP_JSON, "json");
+        register(MIME.ContentType.APP_OCTET_STREAM, "bin");
+
+        //
+        //  magic numbers
+        //
+        registerMagic(jpg, 0xFF, 0xD8, 0xFF);
+        registerMagic(png, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A);
+        registerMagic(gif, "GIF87a");
+        registerMagic(gif, "GIF89a");
+        registerMagic(bmp, "BM");
+        registerMagic(ico, 0x00, 0x00, 0x01, 0x00);
+        registerMagic(webp, "RIFF", "????", "WEBP");
+        registerMagic(wav, "RIFF", "????", "WAVE");
+        registerMagic(oga, "OggS");
+        registerMagic(mp3, "ID3");
+        registerMagic(mp3, 0xFF, 0xFB);
+        registerMagic(mp3, 0xFF, 0xF3);
+        registerMagic(mp3, 0xFF, 0xF2);
+        // ISO base media: box size + "ftyp" + major brand
+        for (String brand : new String[]{"isom", "iso2", "iso5", "mp41", "mp42", "avc1", "M4V ", "dash"}) {
+            registerMagic(mp4, "????", "ftyp", brand);
+        }
+        registerMagic(m4a, "????", "ftyp", "M4A ");
+        registerMagic(m4a, "????", "ftyp", "M4B ");
+        for (String brand : new String[]{"heic", "heix", "heim", "heis", "mif1", "msf1"}) {
+            registerMagic(heic, "????", "ftyp", brand);
+        }
+        registerMagic(avif, "????", "ftyp", "avif");
+        registerMagic(avif, "????", "ftyp", "avis");
+        registerMagic(webm, 0x1A, 0x45, 0xDF, 0xA3);
+        registerMagic(pdf, "%PDF-");
+        registerMagic(zip, 'P', 'K', 0x03, 0x04);
+        registerMagic(zip, 'P', 'K', 0x05, 0x06);
+    }
+
+}
@@ -0,0 +1,155 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *  Spilling large PNF data to the attachment store
+ */
+public class AttachmentStoreTest {
+
+    private Path root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("attachments");
+        SharedNetworkFormatAccess.attachmentStore = new LocalAttachmentStore(root);
+        SharedNetworkFormatAccess.attachmentThreshold = 1024;
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        SharedNetworkFormatAccess.attachmentStore = null;
+        SharedNetworkFormatAccess.attachmentThreshold = 64 * 1024;
+        Files.walk(root).sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+    }
+
+    private static byte[] random(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void testStore() {
+        LocalAttachmentStore store = (LocalAttachmentStore) SharedNetworkFormatAccess.attachmentStore;
+        byte[] data = random(5000);
+        String ref = store.save(data);
+        assertEquals(ref, store.save(data.clone()));
+        byte[] loaded = new byte[data.length];
+        store.load(ref).get(loaded);
+        assertArrayEquals(data, loaded);
+    }
+
+    @Test
+    public void testSpill() {
+        byte[] image = random(5000);
+        PortableNetworkFile pnf = new PortableNetworkFile(EmbedData.create(image, "image/png"), "a.png", null, null);
+        // only the wrapper keeps the reference
+        Map<String, Object> map = pnf.toMap();
+        assertFalse(map.containsKey("data"));
+        assertEquals(1, map.size());
+        assertSame(map, pnf.toMap());
+        // loaded again on demand
+        assertArrayEquals(image, pnf.getData().getBytes());
+        Object info = pnf.serialize();
+        String expected = "data:image/png;filename=a.png;base64," + Base64Codec.encode(image);
+        assertEquals(expected, info);
+        assertEquals(expected, pnf.toString());
+        assertFalse(pnf.toMap().containsKey("data"));
+    }
+
+    @Test
+    public void testSmallData() {
+        byte[] image = random(100);
+        PortableNetworkFile pnf = new PortableNetworkFile(Base64Data.create(image), "a.png", null, null);
+        Map<String, Object> map = pnf.toMap();
+        assertEquals(Base64Codec.encode(image), map.get("data"));
+        assertSame(map, pnf.serialize());
+    }
+
+    @Test
+    public void testNotCached() throws IOException {
+        byte[] image = random(5000);
+        PortableNetworkFile pnf = new PortableNetworkFile(EmbedData.create(image, "image/png"), null, null, null);
+        assertTrue(pnf.toString().startsWith("data:image/png;base64,"));
+        // the data URI is rebuilt from the store every time
+        Files.walk(root).filter(Files::isRegularFile).forEach(path -> path.toFile().delete());
+        try {
+            pnf.toString();
+            fail("data URI should not be cached");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().startsWith("failed to load attachment"));
+        }
+    }
+
+    @Test
+    public void testInvalidate() {
+        URI url = URI.create("https://example.com/a.png");
+        PortableNetworkFile pnf = new PortableNetworkFile(null, "a.png", url, null);
+        assertEquals(url.toString(), pnf.toString());
+        pnf.put("chunks", "xxx");
+        assertTrue(pnf.serialize() instanceof Map);
+        pnf.remove("chunks");
+        assertEquals(url.toString(), pnf.toString());
+    }
+
+    @Test
+    public void testLost() throws IOException {
+        byte[] image = random(5000);
+        PortableNetworkFile pnf = new PortableNetworkFile(Base64Data.create(image), "a.png", null, null);
+        Map<?, ?> info = (Map<?, ?>) pnf.serialize();
+        assertNotSame(pnf.toMap(), info);
+        assertEquals(Base64Codec.encode(image), info.get("data"));
+        // remove the spilled file
+        Files.walk(root).filter(Files::isRegularFile).forEach(path -> path.toFile().delete());
+        try {
+            pnf.serialize();
+            fail("lost attachment should be an error");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().startsWith("failed to load attachment"));
+        }
+    }
+
+}
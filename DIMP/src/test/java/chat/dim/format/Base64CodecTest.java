@@ -0,0 +1,197 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *  Table-driven Base64 codec
+ */
+public class Base64CodecTest {
+
+    private static byte[] random(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] jdkDecode(String base64) {
+        try {
+            return java.util.Base64.getDecoder().decode(base64);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String repeat(char ch, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, ch);
+        return new String(chars);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        assertEquals("", Base64Codec.encode(new byte[0]));
+        assertEquals("Zg==", Base64Codec.encode(utf8("f")));
+        assertEquals("Zm8=", Base64Codec.encode(utf8("fo")));
+        assertEquals("Zm9v", Base64Codec.encode(utf8("foo")));
+        assertEquals("Zm9vYmFy", Base64Codec.encode(utf8("foobar")));
+        for (int size = 0; size < 300; ++size) {
+            byte[] data = random(size, size);
+            String base64 = Base64Codec.encode(data);
+            assertEquals(java.util.Base64.getEncoder().encodeToString(data), base64);
+            assertArrayEquals(data, Base64Codec.decode(base64));
+            assertTrue(Base64Codec.isCanonical(base64));
+        }
+    }
+
+    @Test
+    public void testSameAsJDK() {
+        String[] samples = {
+                "", "Zg", "Zg=", "Zg==", "Zg===", "Zm8", "Zm8=", "Zm8==", "Zm9v", "Zm9v=",
+                "Z", "Z===", "====", "=", "Zm9=v", "Zg==Zg==", "Zm9vYmFy", "Zm9v YmFy",
+                "Zm9v\r\nYmFy", "-_8=", "+/8=", "Zm9v!", "Zm9vé", "Zm9=",
+        };
+        for (String base64 : samples) {
+            byte[] expected = jdkDecode(base64);
+            byte[] actual = Base64Codec.decode(base64);
+            if (expected == null) {
+                assertNull(base64, actual);
+            } else {
+                assertArrayEquals(base64, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testCanonical() {
+        assertFalse(Base64Codec.isCanonical("Zm8"));
+        assertFalse(Base64Codec.isCanonical("Zm9v YmFy"));
+        assertFalse(Base64Codec.isCanonical("-_8="));
+        // non-zero unused bits
+        assertFalse(Base64Codec.isCanonical("Zm9="));
+        assertArrayEquals(Base64Codec.decode("Zm8="), Base64Codec.decode("Zm9="));
+    }
+
+    @Test
+    public void testStreams() throws IOException {
+        byte[] data = random(100000, 7);
+        StringBuilder sb = new StringBuilder();
+        Base64Codec.encode(data, 0, data.length, sb);
+        assertEquals(Base64Codec.encode(data), sb.toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(data.length, Base64Codec.decode(sb, 0, sb.length(), out));
+        assertArrayEquals(data, out.toByteArray());
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        assertEquals(data.length, Base64Codec.decode(sb, 0, sb.length(), direct));
+        // bad symbol after some output
+        out.reset();
+        sb.setCharAt(sb.length() / 2, '!');
+        assertEquals(-1, Base64Codec.decode(sb, 0, sb.length(), out));
+    }
+
+    @Test
+    public void testPaddingOnChunkBoundary() throws IOException {
+        // paddings in the middle, right after a whole chunk
+        String base64 = repeat('A', 4096) + "=AAAA";
+        assertNull(Base64Codec.decode(base64));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(-1, Base64Codec.decode(base64, 0, base64.length(), out));
+        base64 = repeat('A', 4094) + "==AAAA";
+        assertNull(Base64Codec.decode(base64));
+        assertEquals(-1, Base64Codec.decode(base64, 0, base64.length(), out));
+        assertEquals(-1, Base64Codec.decode(base64, 0, base64.length(), ByteBuffer.allocateDirect(4096)));
+        // paddings at the end
+        base64 = repeat('A', 4096) + "AA==";
+        out.reset();
+        assertEquals(3073, Base64Codec.decode(base64, 0, base64.length(), out));
+        assertArrayEquals(Base64Codec.decode(base64), out.toByteArray());
+    }
+
+    @Test
+    public void testEncoderDecoder() throws IOException {
+        byte[] data = random(10000, 9);
+        StringBuilder sb = new StringBuilder();
+        try (java.io.OutputStream encoder = Base64Codec.encoder(sb)) {
+            for (int i = 0; i < data.length; i += 7) {
+                encoder.write(data, i, Math.min(7, data.length - i));
+            }
+        }
+        assertEquals(Base64Codec.encode(data), sb.toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writer decoder = Base64Codec.decoder(out)) {
+            decoder.write(sb.toString());
+        }
+        assertArrayEquals(data, out.toByteArray());
+        // bad paddings
+        String[] samples = {"Zg=", "Z===", "Zm9v=", "Zg==Zg==", "Zm9v YmFy"};
+        for (String base64 : samples) {
+            try {
+                Writer decoder = Base64Codec.decoder(new ByteArrayOutputStream());
+                decoder.write(base64);
+                decoder.close();
+                fail("should reject: " + base64);
+            } catch (IOException e) {
+                // OK
+            }
+        }
+    }
+
+    @Test
+    public void testInstall() {
+        DataCoder coder = Base64.coder;
+        try {
+            Base64Codec.install();
+            assertSame(Base64Codec.CODER, Base64.coder);
+            assertTrue(Base64Data.isBuiltinCoder());
+            assertEquals("Zm9v", Base64.encode(utf8("foo")));
+            assertNull(Base64.decode("Zm9v!"));
+        } finally {
+            Base64.coder = coder;
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *  Equality of data with different representations
+ */
+public class BaseDataTest {
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPlainData() {
+        assertEquals(new PlainData("hello"), new PlainData(utf8("hello")));
+        assertNotEquals(new PlainData("hello"), new PlainData("world"));
+        assertEquals(new PlainData("中😀").hashCode(), new PlainData(utf8("中😀")).hashCode());
+    }
+
+    @Test
+    public void testLoneSurrogates() {
+        PlainData high = new PlainData("a\uD800");
+        PlainData low = new PlainData("a\uDC00");
+        assertFalse(high.isCanonical(high.toString()));
+        assertFalse(low.isCanonical(low.toString()));
+        assertTrue(high.isCanonical("a😀"));
+        // both become "a?" in UTF-8
+        assertTrue(high.equals(low));
+    }
+
+    @Test
+    public void testBase64Data() {
+        byte[] data = {1, 2, 3, 4};
+        assertEquals(new Base64Data("AQIDBA=="), new Base64Data(data));
+        assertNotEquals(new Base64Data("AQIDBA=="), new Base64Data("AQIDBQ=="));
+        // not canonical, compared by decoded bytes
+        assertEquals(new Base64Data("AQIDBA=="), new Base64Data("AQIDBA"));
+    }
+
+}
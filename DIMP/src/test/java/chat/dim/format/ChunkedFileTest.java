@@ -0,0 +1,78 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ *  Chunked file info from message
+ */
+public class ChunkedFileTest {
+
+    private static final String DIGEST = DigestHelper.sha256(new byte[]{1, 2, 3});
+
+    private static ChunkedFile parse(Object size, Object digests) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("size", size);
+        info.put("length", 3);
+        info.put("digests", digests);
+        return ChunkedFile.parse(info);
+    }
+
+    @Test
+    public void testInfo() {
+        ChunkedFile file = parse(1024, Collections.singletonList(DIGEST));
+        assertEquals(1024, file.getChunkSize());
+        assertEquals(3, file.getLength());
+        assertEquals(Collections.singletonList(DIGEST), file.getDigests());
+        assertEquals(1, file.getCount());
+    }
+
+    @Test
+    public void testBadDigests() {
+        assertNull(parse(1024, Arrays.asList(DIGEST, 123)).getDigests());
+        assertNull(parse(1024, Arrays.asList(DIGEST, "../../etc/passwd")).getDigests());
+        assertNull(parse(1024, "digests").getDigests());
+        assertEquals(0, parse(1024, Arrays.asList(DIGEST, 123)).getCount());
+    }
+
+    @Test
+    public void testBadSize() {
+        assertEquals(-1, parse(0, Collections.singletonList(DIGEST)).getChunkSize());
+        assertEquals(-1, parse(-1, Collections.singletonList(DIGEST)).getChunkSize());
+        assertEquals(-1, parse(1L << 32, Collections.singletonList(DIGEST)).getChunkSize());
+        assertEquals(-1, parse("big", Collections.singletonList(DIGEST)).getChunkSize());
+    }
+
+}
@@ -0,0 +1,110 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *  Base58 and Hex codecs, and the data built on them
+ */
+public class CodedDataTest {
+
+    private static byte[] random(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void testBase58() {
+        assertEquals("2NEpo7TZRRrLZSi2U", Base58Codec.encode("Hello World!".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("11", Base58Codec.encode(new byte[2]));
+        assertArrayEquals(new byte[2], Base58Codec.decode("11"));
+        for (int size = 0; size < 100; ++size) {
+            byte[] data = random(size, size);
+            if (size > 1) {
+                // leading zeros
+                data[0] = 0;
+            }
+            String base58 = Base58Codec.encode(data);
+            assertArrayEquals(data, Base58Codec.decode(base58));
+            assertTrue(Base58Codec.isCanonical(base58));
+        }
+    }
+
+    @Test
+    public void testBase58Errors() {
+        // '0', 'O', 'I' and 'l' are not in the alphabet
+        String[] samples = {"2NEpo0", "2NEpoO", "2NEpoI", "2NEpol", "2NEpé", "2NEp o"};
+        for (String base58 : samples) {
+            assertNull(base58, Base58Codec.decode(base58));
+            assertFalse(base58, Base58Codec.isCanonical(base58));
+        }
+    }
+
+    @Test
+    public void testHex() {
+        assertEquals("00ff10ab", HexCodec.encode(new byte[]{0, (byte) 0xFF, 0x10, (byte) 0xAB}));
+        assertArrayEquals(new byte[]{0, (byte) 0xFF, 0x10, (byte) 0xAB}, HexCodec.decode("00FF10ab"));
+        byte[] data = random(1000, 3);
+        assertArrayEquals(data, HexCodec.decode(HexCodec.encode(data)));
+        assertTrue(HexCodec.isCanonical(HexCodec.encode(data)));
+        assertFalse(HexCodec.isCanonical("00FF"));
+    }
+
+    @Test
+    public void testHexErrors() {
+        assertNull(HexCodec.decode("abc"));
+        assertNull(HexCodec.decode("zz"));
+        assertNull(HexCodec.decode("0g"));
+    }
+
+    @Test
+    public void testData() {
+        byte[] data = random(32, 1);
+        Base58Data base58 = new Base58Data(data);
+        assertEquals(Base58Codec.encode(data), base58.toString());
+        assertArrayEquals(data, new Base58Data(base58.toString()).getBytes());
+        assertEquals(new Base58Data(base58.toString()), base58);
+        HexData hex = new HexData(data);
+        assertEquals(HexCodec.encode(data), hex.toString());
+        assertArrayEquals(data, new HexData(hex.toString()).getBytes());
+        // upper case is not canonical, compared by decoded bytes
+        assertEquals(new HexData("00FF"), new HexData("00ff"));
+        assertNotEquals(new HexData("00ff"), new HexData("00fe"));
+    }
+
+}
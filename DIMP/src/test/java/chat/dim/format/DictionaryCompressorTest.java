@@ -0,0 +1,137 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *  Deflate with preset dictionary: round trips and hostile input
+ */
+public class DictionaryCompressorTest {
+
+    private static final String MESSAGE = "{\"sender\":\"moki@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk\"," +
+            "\"receiver\":\"hulk@4YeVEN3aUnvC1DNUufCq1bs9zoBSJTzVEj\",\"time\":1700000000," +
+            "\"data\":\"AQIDBA==\",\"signature\":\"AQIDBA==\"," +
+            "\"keys\":{\"digest\":\"AQID\"},\"meta\":{\"type\":\"1\",\"key\":{\"algorithm\":\"ECC\",\"data\":\"\"}}}";
+
+    @Test
+    public void testRoundTrip() {
+        DictionaryCompressor compressor = new DictionaryCompressor();
+        byte[] data = MESSAGE.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = compressor.compress(data);
+        assertTrue(compressed.length < data.length);
+        assertTrue(DictionaryCompressor.isCompressed(compressed));
+        assertArrayEquals(data, DictionaryCompressor.decompress(compressed));
+    }
+
+    @Test
+    public void testCustomDictionary() {
+        DictionaryTrainer trainer = new DictionaryTrainer();
+        for (int i = 0; i < 10; ++i) {
+            trainer.add(MESSAGE);
+        }
+        byte[] dict = trainer.build(1024);
+        assertTrue(dict.length > 0 && dict.length <= 1024);
+        DictionaryCompressor compressor = new DictionaryCompressor(dict);
+        byte[] data = MESSAGE.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = compressor.compress(data);
+        assertArrayEquals(data, DictionaryCompressor.decompress(compressed));
+    }
+
+    @Test
+    public void testLevels() {
+        // compressors share the deflater of current thread
+        DictionaryCompressor fast = new DictionaryCompressor(DictionaryCompressor.DEFAULT_DICTIONARY, Deflater.NO_COMPRESSION);
+        DictionaryCompressor best = new DictionaryCompressor();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20; ++i) {
+            sb.append(MESSAGE);
+        }
+        byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] first = best.compress(data);
+        // stored blocks are not smaller
+        assertSame(data, fast.compress(data));
+        assertArrayEquals(first, best.compress(data));
+        assertArrayEquals(data, DictionaryCompressor.decompress(first));
+    }
+
+    @Test
+    public void testNotCompressed() {
+        byte[] noise = new byte[64];
+        new Random(1).nextBytes(noise);
+        noise[0] = '{';
+        // not smaller, returned as it is
+        byte[] result = new DictionaryCompressor().compress(noise);
+        assertSame(noise, result);
+        assertFalse(DictionaryCompressor.isCompressed(result));
+        assertSame(noise, DictionaryCompressor.decompress(noise));
+    }
+
+    @Test
+    public void testSizeLimit() {
+        DictionaryCompressor compressor = new DictionaryCompressor();
+        // a few KB expanding to 20 MB
+        byte[] bomb = compressor.compress(new byte[20 * 1024 * 1024]);
+        assertTrue(bomb.length < 64 * 1024);
+        assertNull(DictionaryCompressor.decompress(bomb));
+        byte[] data = MESSAGE.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = compressor.compress(data);
+        assertNull(DictionaryCompressor.decompress(compressed, data.length - 1));
+        assertArrayEquals(data, DictionaryCompressor.decompress(compressed, data.length));
+    }
+
+    @Test
+    public void testBadInput() {
+        DictionaryCompressor compressor = new DictionaryCompressor();
+        byte[] compressed = compressor.compress(MESSAGE.getBytes(StandardCharsets.UTF_8));
+        // truncated
+        assertNull(DictionaryCompressor.decompress(Arrays.copyOf(compressed, compressed.length / 2)));
+        // corrupted
+        byte[] corrupted = compressed.clone();
+        for (int i = 6; i < corrupted.length; ++i) {
+            corrupted[i] ^= 0x5A;
+        }
+        assertNull(DictionaryCompressor.decompress(corrupted));
+        // unknown dictionary
+        byte[] unknown = compressed.clone();
+        unknown[2] ^= 0x01;
+        assertNull(DictionaryCompressor.decompress(unknown));
+        assertEquals(0, DictionaryCompressor.decompress(new byte[0]).length);
+    }
+
+}
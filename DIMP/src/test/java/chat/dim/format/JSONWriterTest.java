@@ -0,0 +1,161 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *  Streaming JSON writer, checked by parsing the output back
+ */
+public class JSONWriterTest {
+
+    private static String text(byte[] json) {
+        return new String(json, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testValues() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("s", "moki");
+        map.put("i", 42);
+        map.put("l", 1L << 40);
+        map.put("d", 0.5);
+        map.put("t", true);
+        map.put("f", false);
+        map.put("n", null);
+        map.put("nan", Double.NaN);
+        map.put("list", Arrays.asList(1, "two", Collections.singletonMap("k", "v")));
+        map.put("array", new int[]{1, 2});
+        assertEquals("{\"s\":\"moki\",\"i\":42,\"l\":1099511627776,\"d\":0.5,\"t\":true,\"f\":false," +
+                "\"n\":null,\"nan\":null,\"list\":[1,\"two\",{\"k\":\"v\"}],\"array\":[1,2]}",
+                text(JSONWriter.toBytes(map)));
+    }
+
+    @Test
+    public void testEscapes() {
+        String value = "quote\" backslash\\ newline\n tab\t ctrl\u0001 é 中 😀";
+        Map<String, Object> map = Collections.singletonMap("text", value);
+        byte[] json = JSONWriter.toBytes(map);
+        assertEquals("{\"text\":\"quote\\\" backslash\\\\ newline\\n tab\\t ctrl\\u0001 é 中 😀\"}", text(json));
+        assertEquals(value, LazyJSONMap.parse(json).get("text"));
+    }
+
+    @Test
+    public void testBrokenSurrogate() {
+        Map<String, Object> map = Collections.singletonMap("text", "a\uD83Db");
+        assertEquals("{\"text\":\"a?b\"}", text(JSONWriter.toBytes(map)));
+    }
+
+    @Test
+    public void testData() {
+        byte[] image = new byte[100000];
+        new Random(1).nextBytes(image);
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("data", Base64Data.create(image));
+        map.put("hex", HexData.create(new byte[]{1, 2}));
+        map.put("image", EmbedData.create(image, "image/png"));
+        map.put("text", EmbedData.create("a b".getBytes(StandardCharsets.UTF_8), "text/plain", null));
+        LazyJSONMap back = LazyJSONMap.parse(JSONWriter.toBytes(map));
+        assertArrayEquals(image, Base64Codec.decode((String) back.get("data")));
+        assertEquals("0102", back.get("hex"));
+        assertEquals("data:image/png;base64," + Base64Codec.encode(image), back.get("image"));
+        assertEquals("data:text/plain,a%20b", back.get("text"));
+    }
+
+    @Test
+    public void testStream() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50000; ++i) {
+            sb.append("é\"");
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("big", sb.toString());
+        map.put("data", Base64Data.create(new byte[70000]));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONWriter.serialize(map, out);
+        byte[] json = JSONWriter.toBytes(map);
+        assertArrayEquals(json, out.toByteArray());
+        assertEquals(sb.toString(), LazyJSONMap.parse(json).get("big"));
+        // the pooled buffer still works after a big message
+        assertEquals("{\"a\":1}", text(JSONWriter.toBytes(Collections.singletonMap("a", 1))));
+    }
+
+    @Test
+    public void testStreamData() throws IOException {
+        byte[] image = new byte[5 * 1024 * 1024];
+        new Random(5).nextBytes(image);
+        Map<String, Object> map = Collections.singletonMap("data", Base64Data.create(image));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int[] largest = {0};
+        JSONWriter.serialize(map, new OutputStream() {
+            @Override
+            public void write(int b) {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                largest[0] = Math.max(largest[0], len);
+                out.write(b, off, len);
+            }
+        });
+        // flushed piece by piece, the buffer is not grown for the whole data
+        assertTrue(largest[0] <= 8192);
+        String json = text(out.toByteArray());
+        assertEquals("{\"data\":\"" + Base64Codec.encode(image) + "\"}", json);
+    }
+
+    @Test
+    public void testParseBack() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("sender", "moki@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk");
+        map.put("time", 1700000000.25);
+        map.put("traces", Arrays.asList("a", "b"));
+        LazyJSONMap back = LazyJSONMap.parse(JSONWriter.toBytes(map));
+        assertEquals(map.get("sender"), back.get("sender"));
+        assertEquals(map.get("time"), back.get("time"));
+        List<?> traces = (List<?>) back.get("traces");
+        assertEquals(map.get("traces"), traces);
+        assertNull(back.get("missing"));
+    }
+
+}
@@ -0,0 +1,165 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *  Lazy JSON map: indexing, lazy decoding and malformed input
+ */
+public class LazyJSONMapTest {
+
+    private static final String MESSAGE = "{\"sender\":\"moki@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk\"," +
+            "\"receiver\":\"hulk@4YeVEN3aUnvC1DNUufCq1bs9zoBSJTzVEj\"," +
+            " \"time\" : 1700000000.5, \"type\":\"1\"," +
+            "\"data\":\"AQIDBA==\",\"meta\":{\"type\":\"1\",\"key\":{\"algorithm\":\"ECC\"}}," +
+            "\"traces\":[\"a\",[1,2],{\"b\":null}],\"text\":\"Hi \\\"you\\\"\\n\\u4e2d\",\"ok\":true,\"n\":-42}";
+
+    private static String nested(String open, String close, int depth, String inner) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; ++i) {
+            sb.append(open);
+        }
+        sb.append(inner);
+        for (int i = 0; i < depth; ++i) {
+            sb.append(close);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testLazyDecoding() {
+        LazyJSONMap map = LazyJSONMap.parse(MESSAGE);
+        assertEquals(10, map.size());
+        assertFalse(map.isDecoded("data"));
+        assertEquals("moki@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk", map.get("sender"));
+        assertTrue(map.isDecoded("sender"));
+        assertFalse(map.isDecoded("data"));
+        assertEquals(1700000000.5, (Double) map.get("time"), 0.0);
+        assertEquals(-42, map.get("n"));
+        assertEquals(Boolean.TRUE, map.get("ok"));
+        assertEquals("Hi \"you\"\n中", map.get("text"));
+        List<?> traces = (List<?>) map.get("traces");
+        assertEquals("a", traces.get(0));
+        assertEquals(Arrays.asList(1, 2), traces.get(1));
+        assertTrue(((Map<?, ?>) traces.get(2)).containsKey("b"));
+        Map<?, ?> meta = (Map<?, ?>) map.get("meta");
+        assertEquals("ECC", ((Map<?, ?>) meta.get("key")).get("algorithm"));
+        assertFalse(map.isModified());
+    }
+
+    @Test
+    public void testRawJSON() {
+        byte[] json = MESSAGE.getBytes(StandardCharsets.UTF_8);
+        LazyJSONMap map = LazyJSONMap.parse(json);
+        // iterating decodes all values, but not modifies
+        assertEquals(10, map.entrySet().size());
+        assertFalse(map.isModified());
+        byte[] raw = new byte[map.getRawJSON().remaining()];
+        map.getRawJSON().get(raw);
+        assertEquals(MESSAGE, new String(raw, StandardCharsets.UTF_8));
+        map.put("receiver", "everyone@everywhere");
+        assertTrue(map.isModified());
+    }
+
+    @Test
+    public void testReadOnlyEntries() {
+        LazyJSONMap map = LazyJSONMap.parse(MESSAGE);
+        try {
+            map.entrySet().iterator().next().setValue("changed");
+            fail("entries should be read-only");
+        } catch (UnsupportedOperationException e) {
+            // OK
+        }
+        try {
+            map.entrySet().clear();
+            fail("entries should be read-only");
+        } catch (UnsupportedOperationException e) {
+            // OK
+        }
+        assertFalse(map.isModified());
+        map.remove("data");
+        assertTrue(map.isModified());
+        assertFalse(map.containsKey("data"));
+    }
+
+    @Test
+    public void testDuplicatedKeys() {
+        LazyJSONMap map = LazyJSONMap.parse("{\"a\":1,\"a\":2}");
+        assertEquals(1, map.size());
+        assertEquals(2, map.get("a"));
+    }
+
+    @Test
+    public void testMalformed() {
+        String[] samples = {
+                "",
+                "[]",
+                "{",
+                "{\"a\"}",
+                "{\"a\":}",
+                "{\"a\":1,}",
+                "{\"a\":1",
+                "{\"a\":\"unterminated}",
+                "{\"a\":[1,2}",
+                "{\"a\":tru}",
+                "{a:1}",
+                "{\"a\":1} trailing",
+        };
+        for (String json : samples) {
+            assertNull(json, LazyJSONMap.parse(json));
+        }
+    }
+
+    @Test
+    public void testNestingDepth() {
+        // deep nesting fails cleanly instead of overflowing the stack
+        assertNull(LazyJSONMap.parse("{\"a\":" + nested("[", "]", 100000, "1") + "}"));
+        assertNull(LazyJSONMap.parse("{\"a\":" + nested("{\"b\":", "}", 100000, "1") + "}"));
+        assertNull(LazyJSONMap.parse("{\"a\":" + nested("[", "]", JSONScanner.MAX_DEPTH + 1, "1") + "}"));
+        byte[] array = nested("[", "]", 100000, "1").getBytes(StandardCharsets.UTF_8);
+        assertNull(new JSONScanner(array, 0, array.length).readValue());
+        // within the limit
+        LazyJSONMap map = LazyJSONMap.parse("{\"a\":" + nested("[", "]", JSONScanner.MAX_DEPTH, "1") + "}");
+        Object value = map.get("a");
+        for (int i = 0; i < JSONScanner.MAX_DEPTH; ++i) {
+            value = ((List<?>) value).get(0);
+        }
+        assertEquals(1, value);
+    }
+
+}
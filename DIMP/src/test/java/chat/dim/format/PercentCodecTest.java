@@ -0,0 +1,76 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ *  URL escaped bodies of data URI (RFC 2396)
+ */
+public class PercentCodecTest {
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        assertEquals("a%20b/c;d", PercentCodec.encode(utf8("a b/c;d")));
+        assertEquals("%C3%A9%0A", PercentCodec.encode(utf8("é\n")));
+        assertArrayEquals(utf8("a bé"), PercentCodec.decode("a%20b%c3%a9"));
+        // non-ASCII chars (not escaped) are taken as UTF-8
+        assertArrayEquals(utf8("中😀"), PercentCodec.decode("中😀"));
+        byte[] data = new byte[1000];
+        new Random(5).nextBytes(data);
+        assertArrayEquals(data, PercentCodec.decode(PercentCodec.encode(data)));
+    }
+
+    @Test
+    public void testErrors() {
+        assertNull(PercentCodec.decode("abc%"));
+        assertNull(PercentCodec.decode("abc%2"));
+        assertNull(PercentCodec.decode("abc%zz"));
+        assertNull(PercentCodec.decode("%é0"));
+    }
+
+    @Test
+    public void testEmbedData() {
+        byte[] text = utf8("hello, 世界");
+        EmbedData data = (EmbedData) EmbedData.create(text, "text/plain", null);
+        assertEquals("data:text/plain,hello,%20%E4%B8%96%E7%95%8C", data.toString());
+        EmbedData back = (EmbedData) EmbedData.create(data.toString());
+        assertArrayEquals(text, back.getBytes());
+        assertArrayEquals(text, ((EmbedData) EmbedData.create("data:text/plain,hello,%20世界")).getBytes());
+    }
+
+}
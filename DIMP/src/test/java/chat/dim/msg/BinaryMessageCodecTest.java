@@ -0,0 +1,164 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import chat.dim.format.Base64Codec;
+import chat.dim.format.JSONWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *  Binary codec for secure/reliable messages
+ */
+public class BinaryMessageCodecTest {
+
+    private static Map<String, Object> message() {
+        byte[] data = new byte[100];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) (i * 7);
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("hulk@4YeVEN3aUnvC1DNUufCq1bs9zoBSJTzVEj", Base64Codec.encode(new byte[]{1, 2, 3}));
+        keys.put("digest", "AQI=");
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("type", "1");
+        meta.put("key", Collections.singletonMap("algorithm", "ECC"));
+        Map<String, Object> msg = new LinkedHashMap<>();
+        msg.put("sender", "moki@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk");
+        msg.put("receiver", "hulk@4YeVEN3aUnvC1DNUufCq1bs9zoBSJTzVEj");
+        msg.put("time", 1700000000.5);
+        msg.put("type", 1);
+        msg.put("sn", 3000000000L);
+        msg.put("negative", -42);
+        msg.put("data", Base64Codec.encode(data));
+        msg.put("keys", keys);
+        msg.put("meta", meta);
+        msg.put("traces", Arrays.asList("a", 1, null, true, false, Collections.singletonList(2.5)));
+        msg.put("signature", Base64Codec.encode(new byte[64]));
+        msg.put("unicode", "中文 😀");
+        return msg;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Map<String, Object> msg = message();
+        byte[] bin = BinaryMessageCodec.encode(msg);
+        assertEquals(BinaryMessageCodec.MAGIC, bin[0] & 0xFF);
+        assertEquals(BinaryMessageCodec.VERSION, bin[1] & 0xFF);
+        assertEquals(msg, BinaryMessageCodec.decode(bin));
+        // in range
+        byte[] frame = new byte[bin.length + 3];
+        System.arraycopy(bin, 0, frame, 1, bin.length);
+        assertEquals(msg, BinaryMessageCodec.decode(frame, 1, 1 + bin.length));
+    }
+
+    @Test
+    public void testNonCanonicalBase64() {
+        Map<String, Object> msg = new LinkedHashMap<>();
+        msg.put("sender", "moki");
+        msg.put("data", "AQIDBA");          // no padding
+        msg.put("signature", "AQID\nBA=="); // line break
+        msg.put("keys", Collections.singletonMap("digest", 123));
+        assertEquals(msg, BinaryMessageCodec.decode(BinaryMessageCodec.encode(msg)));
+    }
+
+    @Test
+    public void testCompact() {
+        Map<String, Object> msg = message();
+        byte[] bin = BinaryMessageCodec.encode(msg);
+        // binary fields take raw bytes instead of base64
+        assertTrue(bin.length < JSONWriter.toBytes(msg).length * 3 / 4);
+    }
+
+    @Test
+    public void testMalformed() {
+        byte[] bin = BinaryMessageCodec.encode(message());
+        // bad magic
+        byte[] bad = bin.clone();
+        bad[0] = 0x7B;
+        assertNull(BinaryMessageCodec.decode(bad));
+        // bad version
+        bad = bin.clone();
+        bad[1] = 0x02;
+        assertNull(BinaryMessageCodec.decode(bad));
+        // truncated
+        for (int len = 0; len < bin.length; ++len) {
+            byte[] part = Arrays.copyOf(bin, len);
+            assertNull("truncated at " + len, BinaryMessageCodec.decode(part));
+        }
+        // trailing bytes
+        assertNull(BinaryMessageCodec.decode(Arrays.copyOf(bin, bin.length + 1)));
+        // huge count
+        byte[] huge = {(byte) BinaryMessageCodec.MAGIC, BinaryMessageCodec.VERSION, 0x08, (byte) 0xFF, (byte) 0xFF, 0x7F};
+        assertNull(BinaryMessageCodec.decode(huge));
+        // unknown tag
+        byte[] tag = {(byte) BinaryMessageCodec.MAGIC, BinaryMessageCodec.VERSION, 0x08, 0x01, 0x7F, 0x00};
+        assertNull(BinaryMessageCodec.decode(tag));
+        // unknown type
+        byte[] type = {(byte) BinaryMessageCodec.MAGIC, BinaryMessageCodec.VERSION, 0x08, 0x01, 0x01, 0x09};
+        assertNull(BinaryMessageCodec.decode(type));
+    }
+
+    @Test
+    public void testNestingDepth() {
+        // build the deep message by hand, the encoder is recursive
+        int depth = 100000;
+        byte[] bin = new byte[5 + depth * 2 + 1];
+        int pos = 0;
+        bin[pos++] = (byte) BinaryMessageCodec.MAGIC;
+        bin[pos++] = BinaryMessageCodec.VERSION;
+        bin[pos++] = 0x08;  // map
+        bin[pos++] = 0x01;  // count
+        bin[pos++] = 0x0C;  // tag: "traces"
+        for (int i = 0; i < depth; ++i) {
+            bin[pos++] = 0x07;  // list
+            bin[pos++] = 0x01;  // count
+        }
+        bin[pos] = 0x00;  // null
+        assertNull(BinaryMessageCodec.decode(bin));
+        // within the limit
+        Object nested = null;
+        for (int i = 1; i < BinaryMessageCodec.MAX_DEPTH; ++i) {
+            nested = Collections.singletonList(nested);
+        }
+        Map<String, Object> msg = Collections.singletonMap("traces", nested);
+        Map<String, Object> back = BinaryMessageCodec.decode(BinaryMessageCodec.encode(msg));
+        assertEquals(msg, back);
+        List<?> list = (List<?>) back.get("traces");
+        assertEquals(1, list.size());
+    }
+
+}
@@ -0,0 +1,121 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *  Envelope fields from serialized messages, without decoding the body
+ */
+public class EnvelopeExtractorTest {
+
+    private static final String MESSAGE = "{\"data\":\"AQIDBA==\",\"keys\":{\"a\":[1,{\"sender\":\"fake\"}]}," +
+            " \"sender\" : \"moki@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk\"," +
+            "\"receiver\":\"hulk@4YeVEN3aUnvC1DNUufCq1bs9zoBSJTzVEj\"," +
+            "\"group\":\"group@7ThVZeDuQAdG3eSDF6NeFjMDPjKN5SbrnM\",\"type\":1,\"time\":1700000000.5," +
+            "\"signature\":\"AQIDBA==\"}";
+
+    @Test
+    public void testExtract() {
+        byte[] json = MESSAGE.getBytes(StandardCharsets.UTF_8);
+        RawEnvelope env = EnvelopeExtractor.extract(json);
+        assertNotNull(env);
+        assertEquals("moki@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk", env.getSender());
+        assertEquals("hulk@4YeVEN3aUnvC1DNUufCq1bs9zoBSJTzVEj", env.getReceiver());
+        assertEquals("group@7ThVZeDuQAdG3eSDF6NeFjMDPjKN5SbrnM", env.getGroup());
+        assertEquals("1", env.getType());
+        assertEquals(1700000000.5, env.getTimestamp(), 0.0);
+        assertEquals(1700000000500L, env.getTime().getTime());
+        // original bytes
+        ByteBuffer message = env.getMessage();
+        assertTrue(message.isReadOnly());
+        byte[] bytes = new byte[message.remaining()];
+        message.get(bytes);
+        assertArrayEquals(json, bytes);
+        assertEquals(json.length, env.getMessageLength());
+    }
+
+    @Test
+    public void testRange() throws IOException {
+        byte[] json = MESSAGE.getBytes(StandardCharsets.UTF_8);
+        byte[] frame = new byte[json.length + 8];
+        System.arraycopy(json, 0, frame, 4, json.length);
+        RawEnvelope env = EnvelopeExtractor.extract(ByteBuffer.wrap(frame, 4, json.length));
+        assertEquals("moki@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk", env.getSender());
+        assertEquals(json.length, env.getMessageLength());
+        // forward from the frame without copying
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(json.length, env.writeTo(out));
+        assertArrayEquals(json, out.toByteArray());
+        ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+        direct.put(json).flip();
+        env = EnvelopeExtractor.extract(direct);
+        assertEquals("hulk@4YeVEN3aUnvC1DNUufCq1bs9zoBSJTzVEj", env.getReceiver());
+        assertEquals(0, direct.position());
+    }
+
+    @Test
+    public void testOptionalFields() {
+        RawEnvelope env = EnvelopeExtractor.extract("{\"sender\":\"moki\"}".getBytes(StandardCharsets.UTF_8));
+        assertEquals("moki", env.getSender());
+        assertNull(env.getReceiver());
+        assertNull(env.getGroup());
+        assertNull(env.getType());
+        assertTrue(Double.isNaN(env.getTimestamp()));
+        assertNull(env.getTime());
+    }
+
+    @Test
+    public void testMalformed() {
+        String[] samples = {
+                "",
+                "[]",
+                "{}",
+                "{\"receiver\":\"hulk\"}",
+                "{\"sender\":\"moki\"",
+                "{\"sender\":\"moki\",}",
+                "{\"sender\" \"moki\"}",
+                "{\"data\":[1,2,\"sender\":\"moki\"}",
+                "{\"sender\":\"moki\"} trailing",
+        };
+        for (String json : samples) {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            assertNull(json, EnvelopeExtractor.extract(bytes));
+        }
+    }
+
+}
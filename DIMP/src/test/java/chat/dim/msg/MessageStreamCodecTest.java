@@ -0,0 +1,154 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import chat.dim.format.JSONWriter;
+import chat.dim.format.LazyJSONMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *  Connection-level codec with static and dynamic tables
+ */
+public class MessageStreamCodecTest {
+
+    private static final String MOKI = "moki@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk";
+    private static final String HULK = "hulk@4YeVEN3aUnvC1DNUufCq1bs9zoBSJTzVEj";
+
+    private static Map<String, Object> message(String sender, String receiver, int sn) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(receiver, "AQID");
+        keys.put("digest", "BAUG");
+        Map<String, Object> msg = new LinkedHashMap<>();
+        msg.put("sender", sender);
+        msg.put("receiver", receiver);
+        msg.put("time", 1700000000.5 + sn);
+        msg.put("type", 1);
+        msg.put("sn", sn);
+        msg.put("data", "AQIDBA==");
+        msg.put("keys", keys);
+        msg.put("meta", Collections.singletonMap("type", "1"));
+        msg.put("traces", Arrays.asList("a", "b"));
+        msg.put("signature", "AQIDBA==");
+        return msg;
+    }
+
+    private static int countStrings(List<?> tokens) {
+        int count = 0;
+        for (Object item : tokens) {
+            if (item instanceof String) {
+                ++count;
+            } else if (item instanceof Map && ((Map<?, ?>) item).get("~") instanceof List) {
+                count += countStrings((List<?>) ((Map<?, ?>) item).get("~"));
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        MessageStreamCodec.Encoder encoder = new MessageStreamCodec.Encoder();
+        MessageStreamCodec.Decoder decoder = new MessageStreamCodec.Decoder();
+        List<Object> first = null;
+        List<Object> tokens = null;
+        for (int sn = 0; sn < 10; ++sn) {
+            Map<String, Object> msg = message(sn % 2 == 0 ? MOKI : HULK, sn % 2 == 0 ? HULK : MOKI, sn);
+            tokens = encoder.encode(msg);
+            if (first == null) {
+                first = tokens;
+            }
+            assertEquals(msg, decoder.decode(tokens));
+        }
+        // names and IDs are replaced by indices after the first message
+        assertTrue(countStrings(tokens) < countStrings(first));
+    }
+
+    @Test
+    public void testEviction() {
+        MessageStreamCodec.Encoder encoder = new MessageStreamCodec.Encoder(4);
+        MessageStreamCodec.Decoder decoder = new MessageStreamCodec.Decoder(4);
+        for (int sn = 0; sn < 100; ++sn) {
+            // more distinct IDs than the table can hold
+            String sender = "user" + (sn % 7) + "@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk";
+            Map<String, Object> msg = message(sender, "everyone@everywhere", sn);
+            msg.put("ext" + (sn % 5), "value");
+            assertEquals(msg, decoder.decode(encoder.encode(msg)));
+        }
+    }
+
+    @Test
+    public void testNestedLookalike() {
+        MessageStreamCodec.Encoder encoder = new MessageStreamCodec.Encoder();
+        MessageStreamCodec.Decoder decoder = new MessageStreamCodec.Decoder();
+        Map<String, Object> msg = new LinkedHashMap<>();
+        msg.put("sender", MOKI);
+        // looks like the wrapper of a nested map
+        msg.put("meta", Collections.singletonMap("~", new ArrayList<>(Arrays.asList("a", 1))));
+        msg.put("long", new String(new char[200]).replace('\0', 'x'));
+        assertEquals(msg, decoder.decode(encoder.encode(msg)));
+    }
+
+    @Test
+    public void testJSON() {
+        MessageStreamCodec.Encoder encoder = new MessageStreamCodec.Encoder();
+        MessageStreamCodec.Decoder decoder = new MessageStreamCodec.Decoder();
+        for (int sn = 0; sn < 3; ++sn) {
+            Map<String, Object> msg = message(MOKI, HULK, sn);
+            byte[] json = JSONWriter.toBytes(Collections.singletonMap("m", encoder.encode(msg)));
+            List<?> tokens = (List<?>) LazyJSONMap.parse(json).get("m");
+            assertEquals(msg, decoder.decode(tokens));
+        }
+    }
+
+    @Test
+    public void testBadTokens() {
+        MessageStreamCodec.Decoder decoder = new MessageStreamCodec.Decoder();
+        // odd size
+        assertNull(decoder.decode(Arrays.asList("sender", MOKI, "receiver")));
+        // unknown index
+        assertNull(decoder.decode(Arrays.asList(1000, "value")));
+        assertNull(decoder.decode(Arrays.asList(-1, "value")));
+        assertNull(decoder.decode(Arrays.asList("sender", Collections.singletonList(1000))));
+        // bad name
+        assertNull(decoder.decode(Arrays.asList(true, "value")));
+        // bad reference
+        assertNull(decoder.decode(Arrays.asList("sender", Arrays.asList(1, 2))));
+        // bad nested entries
+        assertNull(decoder.decode(Arrays.asList("keys", Collections.singletonMap("~", Arrays.asList("a")))));
+    }
+
+}
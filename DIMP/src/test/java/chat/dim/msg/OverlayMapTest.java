@@ -0,0 +1,144 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *  Copy-on-write view over a shared message map
+ */
+public class OverlayMapTest {
+
+    private static Map<String, Object> parent() {
+        Map<String, Object> parent = new LinkedHashMap<>();
+        parent.put("sender", "moki");
+        parent.put("receiver", "hulk");
+        parent.put("meta", new HashMap<>(Collections.singletonMap("type", "1")));
+        parent.put("traces", new ArrayList<>(Arrays.asList("a", "b")));
+        return parent;
+    }
+
+    @Test
+    public void testOverrides() {
+        Map<String, Object> parent = parent();
+        OverlayMap<String, Object> map = new OverlayMap<>(parent);
+        map.put("receiver", "everyone");
+        map.put("group", "group");
+        map.remove("sender");
+        assertEquals(4, map.size());
+        assertNull(map.get("sender"));
+        assertFalse(map.containsKey("sender"));
+        assertEquals("everyone", map.get("receiver"));
+        assertEquals("group", map.get("group"));
+        // parent unchanged
+        assertEquals(parent(), parent);
+        Map<String, Object> expected = parent();
+        expected.remove("sender");
+        expected.put("receiver", "everyone");
+        expected.put("group", "group");
+        assertEquals(expected, map);
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("receiver", "everyone");
+        overrides.put("group", "group");
+        assertEquals(overrides, map.getOverrides());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testNestedValues() {
+        Map<String, Object> parent = parent();
+        OverlayMap<String, Object> one = new OverlayMap<>(parent);
+        OverlayMap<String, Object> two = new OverlayMap<>(parent);
+        // nested values are read-only
+        try {
+            ((Map<String, Object>) one.get("meta")).put("type", "2");
+            fail("nested map should be read-only");
+        } catch (UnsupportedOperationException ignored) {
+        }
+        try {
+            ((List<Object>) one.get("traces")).add("c");
+            fail("nested list should be read-only");
+        } catch (UnsupportedOperationException ignored) {
+        }
+        for (Map.Entry<String, Object> entry : two.entrySet()) {
+            if (entry.getValue() instanceof List) {
+                try {
+                    ((List<Object>) entry.getValue()).clear();
+                    fail("nested list should be read-only");
+                } catch (UnsupportedOperationException ignored) {
+                }
+            }
+        }
+        // reading stores nothing
+        assertTrue(one.getOverrides().isEmpty());
+        assertTrue(two.getOverrides().isEmpty());
+        // put a new copy to change it
+        List<Object> traces = new ArrayList<>((List<Object>) one.get("traces"));
+        traces.add("c");
+        one.put("traces", traces);
+        assertEquals(3, ((List<?>) one.get("traces")).size());
+        assertEquals(2, ((List<?>) two.get("traces")).size());
+        assertEquals(parent(), parent);
+        assertEquals(parent.get("meta"), one.get("meta"));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        Map<String, Object> parent = parent();
+        OverlayMap<String, Object> map = new OverlayMap<>(parent);
+        map.put("group", "group");
+        Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            String key = iterator.next().getKey();
+            if (key.equals("receiver") || key.equals("group")) {
+                iterator.remove();
+            }
+        }
+        assertEquals(3, map.size());
+        assertFalse(map.containsKey("receiver"));
+        assertFalse(map.containsKey("group"));
+        assertEquals(parent(), parent);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(4, parent.size());
+    }
+
+}
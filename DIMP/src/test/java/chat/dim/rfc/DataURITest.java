@@ -0,0 +1,112 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.rfc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *  Data URI (RFC 2397)
+ */
+public class DataURITest {
+
+    @Test
+    public void testParse() {
+        String text = "data:image/png;charset=utf-8;filename=avatar.png;base64,iVBORw0KGgo=";
+        DataURI uri = DataURI.parse(text);
+        assertEquals("image/png", uri.head.mimeType);
+        assertEquals("base64", uri.head.encoding);
+        assertEquals("utf-8", uri.getCharset());
+        assertEquals("avatar.png", uri.getHeader("Filename"));
+        assertEquals("image/png", uri.getHeader("content-type"));
+        assertEquals("iVBORw0KGgo=", uri.getBody().toString());
+        assertEquals(text, uri.toString());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testBody() {
+        String text = "data:text/plain,a%20b";
+        DataURI uri = DataURI.parse(text);
+        assertEquals("a%20b", uri.getBody().toString());
+        assertEquals("a%20b", uri.getBodyString());
+        // old field
+        assertEquals("a%20b", uri.body);
+        assertSame(text, uri.toString());
+    }
+
+    @Test
+    public void testNullBody() throws IOException {
+        DataURI.Header head = DataURI.Header.create("text/plain", null, null);
+        DataURI uri = new DataURI(head, (String) null);
+        assertTrue(uri.isEmpty());
+        assertEquals("data:text/plain,null", uri.toString());
+        StringBuilder sb = new StringBuilder();
+        uri.writeTo(sb);
+        assertEquals(uri.toString(), sb.toString());
+    }
+
+    @Test
+    public void testTrailingSemicolon() {
+        DataURI uri = DataURI.parse("data:image/png;base64;,AAAA");
+        assertEquals("image/png", uri.head.mimeType);
+        assertEquals("base64", uri.head.encoding);
+        uri = DataURI.parse("data:image/png;;base64,AAAA");
+        assertEquals("base64", uri.head.encoding);
+    }
+
+    @Test
+    public void testBuild() throws IOException {
+        DataURI.Header head = DataURI.Header.create("image/png", "base64", null);
+        DataURI uri = new DataURI(head, "AAAA");
+        assertEquals("data:image/png;base64,AAAA", uri.toString());
+        StringBuilder sb = new StringBuilder();
+        uri.writeTo(sb);
+        assertEquals(uri.toString(), sb.toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        uri.writeTo(out);
+        assertEquals(uri.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+        // default mime type
+        head = DataURI.Header.create(null, "base64", null);
+        assertEquals("data:text/plain;base64,AAAA", new DataURI(head, "AAAA").toString());
+    }
+
+    @Test
+    public void testNotDataURI() {
+        assertNull(DataURI.parse(null));
+        assertNull(DataURI.parse(""));
+        assertNull(DataURI.parse("http://example.com/a.png"));
+    }
+
+}
@@ -0,0 +1,86 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.rfc;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *  Media type registry and magic number sniffing
+ */
+public class MediaTypeTest {
+
+    private static byte[] ftyp(String brand) {
+        byte[] data = new byte[32];
+        data[3] = 0x20;
+        System.arraycopy("ftyp".getBytes(StandardCharsets.ISO_8859_1), 0, data, 4, 4);
+        System.arraycopy(brand.getBytes(StandardCharsets.ISO_8859_1), 0, data, 8, 4);
+        return data;
+    }
+
+    @Test
+    public void testDetect() {
+        assertEquals("image/png", MediaType.detect(new byte[]{
+                (byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0}).getContentType());
+        assertEquals("image/jpeg", MediaType.detect(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0}).getContentType());
+        assertEquals("image/webp", MediaType.detect("RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.ISO_8859_1)).getContentType());
+        assertEquals("audio/wav", MediaType.detect("RIFF\0\0\0\0WAVEfmt ".getBytes(StandardCharsets.ISO_8859_1)).getContentType());
+        assertNull(MediaType.detect("hello".getBytes(StandardCharsets.ISO_8859_1)));
+        assertNull(MediaType.detect(new byte[0]));
+        assertNull(MediaType.detect(null));
+    }
+
+    @Test
+    public void testBrands() {
+        assertEquals("video/mp4", MediaType.detect(ftyp("isom")).getContentType());
+        assertEquals("video/mp4", MediaType.detect(ftyp("mp42")).getContentType());
+        assertEquals("audio/mp4", MediaType.detect(ftyp("M4A ")).getContentType());
+        MediaType heic = MediaType.detect(ftyp("heic"));
+        assertEquals("image/heic", heic.getContentType());
+        assertTrue(heic.isImage);
+        assertEquals("image/avif", MediaType.detect(ftyp("avif")).getContentType());
+        // unknown brand
+        assertNull(MediaType.detect(ftyp("qt  ")));
+    }
+
+    @Test
+    public void testRegistry() {
+        assertSame(MediaType.get("image/png"), MediaType.get("IMAGE/PNG"));
+        assertSame(MediaType.get("image/jpeg"), MediaType.get("image/jpg"));
+        // not registered, not cached
+        MediaType custom = MediaType.get("application/x-custom");
+        assertNotSame(custom, MediaType.get("application/x-custom"));
+        assertEquals(custom, MediaType.get("application/x-custom"));
+    }
+
+}
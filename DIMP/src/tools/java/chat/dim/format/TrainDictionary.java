@@ -0,0 +1,54 @@
+/* license: https://mit-license.org
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ *  Command line tool for DictionaryTrainer, not shipped in the library jar
+ *
+ *  <blockquote><pre>
+ *  Usage:
+ *      ./gradlew trainDictionary -Pcorpus={corpus file or dir} -Poutput={output file} [-PmaxSize={max size}]
+ *  </pre></blockquote>
+ */
+public final class TrainDictionary {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TrainDictionary {corpus file or dir} {output file} [max size]");
+            System.exit(1);
+        }
+        int maxSize = args.length > 2 ? Integer.parseInt(args[2]) : DictionaryTrainer.MAX_DICTIONARY_SIZE;
+        byte[] dict = DictionaryTrainer.train(Paths.get(args[0]), maxSize);
+        Files.write(Paths.get(args[1]), dict);
+        int id = DictionaryCompressor.register(dict);
+        System.out.printf("dictionary: %d bytes, adler32: %08x%n", dict.length, id);
+    }
+
+}